@@ -0,0 +1,197 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Expected results that are compared by {@link ResultProcessor}.
+ * <p>
+ * The input file is memory-mapped, and only the offsets of its sections,
+ * i.e., the lines following each header
+ * {@code ---------- <method> (analysis) ----------}, are indexed up front.
+ * The lines of a section are decoded only when the results of its method
+ * and analysis are compared, so that the whole input is never loaded
+ * into the heap. The lines are returned as hash sets, so that the given
+ * results are looked up in constant time.
+ */
+class ExpectedResults {
+
+    /**
+     * Number of dashes at both ends of a header.
+     */
+    private static final int DASHES = 10;
+
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Maps each (method, analysis) to its sections. In general there is
+     * one section for each key, and the lines of the sections with
+     * the same key are merged.
+     */
+    private final MultiMap<Pair<String, String>, Section> sections = Maps.newMultiMap();
+
+    private ExpectedResults(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        buildIndex();
+    }
+
+    /**
+     * Maps the given file and indexes its sections.
+     */
+    static ExpectedResults map(Path path) {
+        try (FileChannel channel = FileChannel.open(path)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new RuntimeException("Input file " + path +
+                        " is too large (> 2GB) to be mapped");
+            }
+            // the mapping remains valid after the channel is closed
+            return new ExpectedResults(channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read input file", e);
+        }
+    }
+
+    /**
+     * @return the non-blank lines of the sections of given method
+     * and analysis, or an empty set if there is no such section.
+     */
+    Set<String> get(String method, String analysis) {
+        Set<Section> secs = sections.get(new Pair<>(method, analysis));
+        if (secs.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> lines = new LinkedHashSet<>();
+        for (Section sec : secs) {
+            int start = sec.start();
+            while (start < sec.end()) {
+                int end = lineEnd(start, sec.end());
+                String line = decode(start, end);
+                if (!line.isBlank()) {
+                    lines.add(line);
+                }
+                start = end + 1;
+            }
+        }
+        return lines;
+    }
+
+    private void buildIndex() {
+        int limit = buffer.limit();
+        Pair<String, String> currentKey = null;
+        int sectionStart = 0;
+        int start = 0;
+        while (start < limit) {
+            int end = lineEnd(start, limit);
+            if (isHeader(start, end)) {
+                Pair<String, String> key = extractKey(decode(start, end).strip());
+                if (currentKey != null) {
+                    sections.put(currentKey, new Section(sectionStart, start));
+                }
+                currentKey = key;
+                sectionStart = end + 1;
+            }
+            start = end + 1;
+        }
+        if (currentKey != null) {
+            sections.put(currentKey, new Section(sectionStart, limit));
+        }
+    }
+
+    /**
+     * @return the offset of the line feed that terminates the line
+     * starting at {@code start}, or {@code limit} if there is none.
+     */
+    private int lineEnd(int start, int limit) {
+        int i = start;
+        while (i < limit && buffer.get(i) != '\n') {
+            ++i;
+        }
+        return i;
+    }
+
+    private boolean isHeader(int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            --end;
+        }
+        if (end - start < DASHES * 2) {
+            return false;
+        }
+        for (int i = 0; i < DASHES; ++i) {
+            if (buffer.get(start + i) != '-' || buffer.get(end - 1 - i) != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the bytes in [start, end) as a line, without the trailing
+     * carriage return (if any).
+     */
+    private String decode(int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            --end;
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the (method, analysis) of given header, or null if
+     * the header is malformed.
+     */
+    @Nullable
+    private static Pair<String, String> extractKey(String line) {
+        int ms = line.indexOf('<'); // method start
+        int me = line.indexOf("> "); // method end
+        int as = line.lastIndexOf('('); // analysis start
+        int ae = line.lastIndexOf(')'); // analysis end
+        if (ms < 0 || me < ms || as < 0 || ae < as) {
+            return null;
+        }
+        String method = line.substring(ms, me + 1);
+        String analysis = line.substring(as + 1, ae);
+        return new Pair<>(method, analysis);
+    }
+
+    /**
+     * Range [start, end) of the bytes of a section.
+     */
+    private record Section(int start, int end) {
+    }
+}
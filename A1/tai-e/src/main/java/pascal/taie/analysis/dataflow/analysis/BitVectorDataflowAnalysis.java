@@ -0,0 +1,239 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.BlockSolver;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Template class for gen/kill (bit-vector) data-flow analyses.
+ * <p>
+ * A concrete analysis only numbers the elements of its data-flow facts
+ * for each method ({@link #makeDomain(IR)}) and computes the gen/kill sets
+ * of the statements ({@link #computeGenKill(IR, Domain, GenKill)}).
+ * The facts are {@link BitSetFact}s, the meet operator is word-parallel
+ * union (may analysis) or intersection (must analysis), and the transfer
+ * function of each statement is {@code OUT = gen | (IN & ~kill)}
+ * ({@code IN = gen | (OUT & ~kill)} for backward analysis).
+ *
+ * @param <E> type of the elements of data-flow facts
+ */
+public abstract class BitVectorDataflowAnalysis<E> extends MethodAnalysis {
+
+    /**
+     * Whether the CFGs are solved on their basic blocks,
+     * given by option {@code solve-blocks}.
+     */
+    private final boolean solveBlocks;
+
+    protected BitVectorDataflowAnalysis(AnalysisConfig config) {
+        super(config);
+        solveBlocks = getOptions().getBooleanOrDefault("solve-blocks", false);
+    }
+
+    /**
+     * @return true if this analysis is forward, otherwise false.
+     */
+    public abstract boolean isForward();
+
+    /**
+     * @return true if this is a must analysis, i.e., the facts are met
+     * by intersection, otherwise (may analysis) the facts are met by union.
+     */
+    public abstract boolean isMust();
+
+    /**
+     * @return the domain of the data-flow facts of the given method.
+     */
+    protected abstract Domain<E> makeDomain(IR ir);
+
+    /**
+     * Computes the gen/kill sets of the statements in the given method.
+     * The gen/kill sets of the statements that are not touched remain empty.
+     */
+    protected abstract void computeGenKill(IR ir, Domain<E> domain, GenKill<E> genKill);
+
+    @Override
+    public DataflowResult<Stmt, SetFact<E>> analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        Domain<E> domain = makeDomain(ir);
+        // the entry and exit of CFG are numbered after the statements in IR
+        GenKill<E> genKill = new GenKill<>(domain, ir.getStmts().size() + 2);
+        computeGenKill(ir, domain, genKill);
+        GenKillProblem problem = new GenKillProblem(domain, genKill);
+        return solveBlocks ? new BlockSolver<>(problem).solve(cfg)
+                : Solver.makeSolver(problem).solve(cfg);
+    }
+
+    /**
+     * Numbering of the elements of data-flow facts in a method.
+     *
+     * @param elements all elements, where the element at position i has index i
+     * @param indexer  maps each element to its index, and returns -1 for
+     *                 the objects that are not in the domain
+     */
+    public record Domain<E>(List<E> elements, ToIntFunction<? super E> indexer) {
+
+        /**
+         * @return a new empty fact of this domain.
+         */
+        public BitSetFact<E> newFact() {
+            return new BitSetFact<>(elements, indexer);
+        }
+    }
+
+    /**
+     * Gen/kill sets of the statements in a method, indexed by
+     * {@link Stmt#getIndex()}. The sets are created on demand, and all
+     * statements that do not generate (kill) any elements share
+     * the same empty set.
+     */
+    public static final class GenKill<E> {
+
+        private final Domain<E> domain;
+
+        private final BitSetFact<E> empty;
+
+        private final List<BitSetFact<E>> gens;
+
+        private final List<BitSetFact<E>> kills;
+
+        private GenKill(Domain<E> domain, int nStmts) {
+            this.domain = domain;
+            this.empty = domain.newFact();
+            this.gens = new ArrayList<>(Collections.nCopies(nStmts, empty));
+            this.kills = new ArrayList<>(Collections.nCopies(nStmts, empty));
+        }
+
+        /**
+         * Adds an element to the gen set of given statement.
+         */
+        public void gen(Stmt stmt, E e) {
+            getOrCreate(gens, stmt).add(e);
+        }
+
+        /**
+         * Adds an element to the kill set of given statement.
+         */
+        public void kill(Stmt stmt, E e) {
+            getOrCreate(kills, stmt).add(e);
+        }
+
+        private BitSetFact<E> getOrCreate(List<BitSetFact<E>> sets, Stmt stmt) {
+            BitSetFact<E> set = sets.get(stmt.getIndex());
+            if (set == empty) {
+                set = domain.newFact();
+                sets.set(stmt.getIndex(), set);
+            }
+            return set;
+        }
+
+        private BitSetFact<E> getGen(Stmt stmt) {
+            return gens.get(stmt.getIndex());
+        }
+
+        private BitSetFact<E> getKill(Stmt stmt) {
+            return kills.get(stmt.getIndex());
+        }
+    }
+
+    /**
+     * Adapts the gen/kill sets of a method to {@link DataflowAnalysis},
+     * so that it can be solved by the data-flow solvers.
+     */
+    private class GenKillProblem implements DataflowAnalysis<Stmt, SetFact<E>> {
+
+        private final Domain<E> domain;
+
+        private final GenKill<E> genKill;
+
+        private GenKillProblem(Domain<E> domain, GenKill<E> genKill) {
+            this.domain = domain;
+            this.genKill = genKill;
+        }
+
+        @Override
+        public boolean isForward() {
+            return BitVectorDataflowAnalysis.this.isForward();
+        }
+
+        @Override
+        public SetFact<E> newBoundaryFact(CFG<Stmt> cfg) {
+            return domain.newFact();
+        }
+
+        @Override
+        public SetFact<E> newInitialFact() {
+            BitSetFact<E> fact = domain.newFact();
+            if (isMust()) {
+                fact.fill();
+            }
+            return fact;
+        }
+
+        @Override
+        public void meetInto(SetFact<E> fact, SetFact<E> target) {
+            if (isMust()) {
+                target.intersect(fact);
+            } else {
+                target.union(fact);
+            }
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, SetFact<E> in, SetFact<E> out) {
+            BitSetFact<E> gen = genKill.getGen(stmt);
+            BitSetFact<E> kill = genKill.getKill(stmt);
+            if (isForward()) {
+                return ((BitSetFact<E>) out).setGenKill((BitSetFact<E>) in, gen, kill);
+            } else {
+                return ((BitSetFact<E>) in).setGenKill((BitSetFact<E>) out, gen, kill);
+            }
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Stmt> edge) {
+            return false;
+        }
+
+        @Override
+        public SetFact<E> transferEdge(Edge<Stmt> edge, SetFact<E> nodeFact) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.AnalysisException;
+
+import java.util.List;
+
+/**
+ * Solves statement-level data-flow problems on the {@link BlockCFG}
+ * of the CFG, so that the work list, the fact storage and the meet
+ * operations scale with the number of basic blocks instead of statements.
+ * <p>
+ * The transfer function of a block is the composition of the transfer
+ * functions of its statements, and the intermediate facts in the block
+ * are thrown away right after use. The result is still given per
+ * statement: only the facts at the boundaries of blocks are stored,
+ * and the facts in the blocks are recomputed on demand
+ * (see {@link IndexedDataflowResult}).
+ * <p>
+ * Edge transfer functions are not supported, as the edges between
+ * statements in the same block are not visible to the block-level solver.
+ * Solving an analysis that needs edge transfer for any edge of the CFG
+ * fails with an {@link AnalysisException}.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public class BlockSolver<Fact> {
+
+    private final DataflowAnalysis<Stmt, Fact> analysis;
+
+    public BlockSolver(DataflowAnalysis<Stmt, Fact> analysis) {
+        this.analysis = analysis;
+    }
+
+    /**
+     * Starts this solver on the given CFG.
+     *
+     * @param cfg control-flow graph where the analysis is performed on
+     * @return the analysis result of the statements
+     */
+    public DataflowResult<Stmt, Fact> solve(CFG<Stmt> cfg) {
+        checkNoEdgeTransfer(cfg);
+        BlockCFG blockCFG = new BlockCFG(cfg);
+        DataflowResult<BasicBlock, Fact> blockResult =
+                Solver.makeSolver(new BlockAnalysis(cfg)).solve(blockCFG);
+        // the entry and exit of CFG are numbered after the statements in IR
+        IndexedDataflowResult<Stmt, Fact> result = new IndexedDataflowResult<>(
+                Stmt::getIndex, cfg.getIR().getStmts().size() + 2);
+        for (BasicBlock block : blockCFG) {
+            result.setInFact(block.getFirstStmt(), blockResult.getInFact(block));
+            result.setOutFact(block.getLastStmt(), blockResult.getOutFact(block));
+        }
+        result.recomputeMissing(analysis, cfg);
+        return result;
+    }
+
+    private void checkNoEdgeTransfer(CFG<Stmt> cfg) {
+        for (Stmt node : cfg) {
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                if (analysis.needTransferEdge(edge)) {
+                    throw new AnalysisException("BlockSolver does not"
+                            + " support edge transfer, which is needed for "
+                            + edge);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lifts the analysis to basic blocks.
+     */
+    private class BlockAnalysis implements DataflowAnalysis<BasicBlock, Fact> {
+
+        private final CFG<Stmt> cfg;
+
+        private BlockAnalysis(CFG<Stmt> cfg) {
+            this.cfg = cfg;
+        }
+
+        @Override
+        public boolean isForward() {
+            return analysis.isForward();
+        }
+
+        @Override
+        public Fact newBoundaryFact(CFG<BasicBlock> blockCFG) {
+            return analysis.newBoundaryFact(cfg);
+        }
+
+        @Override
+        public Fact newInitialFact() {
+            return analysis.newInitialFact();
+        }
+
+        @Override
+        public void meetInto(Fact fact, Fact target) {
+            analysis.meetInto(fact, target);
+        }
+
+        @Override
+        public boolean transferNode(BasicBlock block, Fact in, Fact out) {
+            List<Stmt> stmts = block.getStmts();
+            int last = stmts.size() - 1;
+            if (isForward()) {
+                Fact fact = in;
+                for (int i = 0; i < last; ++i) {
+                    Fact next = analysis.newInitialFact();
+                    analysis.transferNode(stmts.get(i), fact, next);
+                    fact = next;
+                }
+                return analysis.transferNode(stmts.get(last), fact, out);
+            } else {
+                Fact fact = out;
+                for (int i = last; i > 0; --i) {
+                    Fact prev = analysis.newInitialFact();
+                    analysis.transferNode(stmts.get(i), prev, fact);
+                    fact = prev;
+                }
+                return analysis.transferNode(stmts.get(0), in, fact);
+            }
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<BasicBlock> edge) {
+            return false;
+        }
+
+        @Override
+        public Fact transferEdge(Edge<BasicBlock> edge, Fact nodeFact) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
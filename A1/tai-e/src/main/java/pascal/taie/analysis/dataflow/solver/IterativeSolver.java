@@ -1,68 +0,0 @@
-/*
- * Tai-e: A Static Analysis Framework for Java
- *
- * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
- * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
- *
- * This file is part of Tai-e.
- *
- * Tai-e is free software: you can redistribute it and/or modify
- * it under the terms of the GNU Lesser General Public License
- * as published by the Free Software Foundation, either version 3
- * of the License, or (at your option) any later version.
- *
- * Tai-e is distributed in the hope that it will be useful,but WITHOUT
- * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
- * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
- * Public License for more details.
- *
- * You should have received a copy of the GNU Lesser General Public
- * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
- */
-
-package pascal.taie.analysis.dataflow.solver;
-
-import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
-import pascal.taie.analysis.dataflow.fact.DataflowResult;
-import pascal.taie.analysis.graph.cfg.CFG;
-
-class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
-
-    public IterativeSolver(DataflowAnalysis<Node, Fact> analysis) {
-        super(analysis);
-    }
-
-    @Override
-    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // whether any change occurred
-        boolean changed = true;
-
-        Node exit = cfg.getExit();
-
-        while(changed) {
-            changed = false;
-            // iterate every node on cfg
-            for(Node curNode: cfg) {
-                if(!exit.equals(curNode)) {
-                    Fact curIn = result.getInFact(curNode);
-                    Fact curOut = result.getOutFact(curNode);
-
-                    // merge IN[S] into OUT[B], i. e. calculate OUT[B]
-                    // since the transfer function is a monotonic function on a lattice, IN[s] never shrinks
-                    // so, it's correct to union IN[s] directly into OUT[B]
-                    for(Node successor: cfg.getSuccsOf(curNode)) {
-                        analysis.meetInto(result.getInFact(successor), curOut);
-                    }
-
-                    // calculate IN[B] according to the transfer function
-                    changed |= analysis.transferNode(curNode, curIn, curOut);
-                }
-            }
-        }
-    }
-}
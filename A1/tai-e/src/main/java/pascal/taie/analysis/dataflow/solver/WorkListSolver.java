@@ -0,0 +1,191 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Work-list solver for both forward and backward analyses.
+ * <p>
+ * The nodes are processed in reverse post-order of the CFG (of the reverse
+ * CFG for backward analyses), so that a node is usually processed after
+ * the nodes whose facts flow into it. The work list is a bit set over
+ * the positions of nodes in that order, thus the pending node that comes
+ * first in the order is always processed first, and checking membership
+ * and adding a node take constant time.
+ * <p>
+ * The facts are propagated on change: when the transfer function of
+ * a node changes its output fact, that fact is met into the input facts
+ * of the flow successors right away, instead of letting each successor
+ * meet the facts of all its flow predecessors again, most of which
+ * have not changed. This relies on {@link DataflowAnalysis#meetInto}
+ * only accumulating into the target fact, which holds for
+ * monotone analyses.
+ */
+class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        solve(cfg, cfg.getEntry(), cfg::getPredsOf, cfg::getSuccsOf,
+                result::getInFact, result::getOutFact);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        solve(cfg, cfg.getExit(), cfg::getSuccsOf, cfg::getPredsOf,
+                result::getOutFact, result::getInFact);
+    }
+
+    /**
+     * Solves the data-flow problem in the direction of the analysis.
+     *
+     * @param root        the node where the facts start to flow,
+     *                    i.e., entry (exit) of CFG for forward (backward) analysis
+     * @param flowPreds   the nodes whose facts flow into given node
+     * @param flowSuccs   the nodes where the facts of given node flow into
+     * @param inputFacts  the facts that are the meet of the facts of
+     *                    the flow predecessors, i.e., IN (OUT) facts for
+     *                    forward (backward) analysis
+     * @param outputFacts the facts that are computed by transfer functions
+     */
+    private void solve(CFG<Node> cfg, Node root,
+                       Function<Node, Set<Node>> flowPreds,
+                       Function<Node, Set<Node>> flowSuccs,
+                       Function<Node, Fact> inputFacts,
+                       Function<Node, Fact> outputFacts) {
+        List<Node> order = reversePostOrder(cfg, root, flowSuccs);
+        Map<Node, Integer> positions = positionsOf(order);
+        // all nodes are added initially, as the gens of the nodes
+        // have not been taken into account before their first visit
+        BitSet workList = new BitSet(order.size());
+        workList.set(0, order.size());
+        BitSet visited = new BitSet(order.size());
+        for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            Node node = order.get(i);
+            Fact input = inputFacts.apply(node);
+            if (!visited.get(i)) {
+                // first visit, collects the facts that have not been
+                // propagated to this node
+                visited.set(i);
+                for (Node pred : flowPreds.apply(node)) {
+                    analysis.meetInto(outputFacts.apply(pred), input);
+                }
+            }
+            Fact output = outputFacts.apply(node);
+            boolean changed = analysis.isForward()
+                    ? analysis.transferNode(node, input, output)
+                    : analysis.transferNode(node, output, input);
+            if (changed) {
+                for (Node succ : flowSuccs.apply(node)) {
+                    int pos = positions.get(succ);
+                    if (visited.get(pos)) {
+                        // unvisited successors will collect the fact
+                        // on their first visit
+                        analysis.meetInto(output, inputFacts.apply(succ));
+                    }
+                    workList.set(pos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the reverse post-order of the nodes in the graph which
+     * starts from {@code root} and follows the edges given by {@code next}.
+     * The nodes that are not reachable from {@code root}, e.g., the nodes
+     * in dead code or in infinite loops, are ordered after all reachable nodes.
+     */
+    private static <Node> List<Node> reversePostOrder(
+            CFG<Node> cfg, Node root, Function<Node, Set<Node>> next) {
+        List<Node> postOrder = new ArrayList<>(cfg.getNumberOfNodes());
+        Set<Node> visited = Sets.newSet(cfg.getNumberOfNodes());
+        dfs(root, next, visited, postOrder);
+        int nReachable = postOrder.size();
+        Collections.reverse(postOrder);
+        if (nReachable < cfg.getNumberOfNodes()) {
+            List<Node> unreachable = new ArrayList<>();
+            for (Node node : cfg) {
+                if (!visited.contains(node)) {
+                    dfs(node, next, visited, unreachable);
+                }
+            }
+            Collections.reverse(unreachable);
+            postOrder.addAll(unreachable);
+        }
+        return postOrder;
+    }
+
+    /**
+     * Iterative depth-first search, so that large methods
+     * do not overflow the call stack.
+     */
+    private static <Node> void dfs(Node root, Function<Node, Set<Node>> next,
+                                   Set<Node> visited, List<Node> postOrder) {
+        Deque<Node> nodes = new ArrayDeque<>();
+        Deque<Iterator<Node>> iterators = new ArrayDeque<>();
+        visited.add(root);
+        nodes.push(root);
+        iterators.push(next.apply(root).iterator());
+        while (!nodes.isEmpty()) {
+            Iterator<Node> it = iterators.peek();
+            if (it.hasNext()) {
+                Node node = it.next();
+                if (visited.add(node)) {
+                    nodes.push(node);
+                    iterators.push(next.apply(node).iterator());
+                }
+            } else {
+                iterators.pop();
+                postOrder.add(nodes.pop());
+            }
+        }
+    }
+
+    private static <Node> Map<Node, Integer> positionsOf(List<Node> order) {
+        Map<Node, Integer> positions = Maps.newMap(order.size());
+        for (int i = 0; i < order.size(); ++i) {
+            positions.put(order.get(i), i);
+        }
+        return positions;
+    }
+}
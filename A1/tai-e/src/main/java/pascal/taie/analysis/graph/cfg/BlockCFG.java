@@ -0,0 +1,145 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Basic-block view of a statement CFG, in which each node is
+ * a {@link BasicBlock}, and each edge corresponds to the edge
+ * (of the same kind) between the last statement of the source block
+ * and the first statement of the target block.
+ * <p>
+ * The entry of the statement CFG starts the entry block, and the exit
+ * of the statement CFG forms the exit block by itself.
+ */
+public class BlockCFG extends AbstractCFG<BasicBlock> {
+
+    private final CFG<Stmt> stmtCFG;
+
+    /**
+     * Blocks of the statements, indexed by {@link Stmt#getIndex()}.
+     */
+    private final BasicBlock[] blocks;
+
+    private final List<BasicBlock> blockList = new ArrayList<>();
+
+    public BlockCFG(CFG<Stmt> stmtCFG) {
+        super(stmtCFG.getIR());
+        this.stmtCFG = stmtCFG;
+        // the entry and exit of CFG are numbered after the statements in IR
+        this.blocks = new BasicBlock[ir.getStmts().size() + 2];
+        for (Stmt stmt : stmtCFG) {
+            if (isLeader(stmt)) {
+                buildBlock(stmt);
+            }
+        }
+        // the statements in a cycle which has no leaders, e.g.,
+        // an unreachable infinite loop, still need a block
+        for (Stmt stmt : stmtCFG) {
+            if (getBlockOf(stmt) == null) {
+                buildBlock(stmt);
+            }
+        }
+        setEntry(getBlockOf(stmtCFG.getEntry()));
+        setExit(getBlockOf(stmtCFG.getExit()));
+        for (BasicBlock block : blockList) {
+            addNode(block);
+        }
+        for (BasicBlock block : blockList) {
+            for (Edge<Stmt> edge : stmtCFG.getOutEdgesOf(block.getLastStmt())) {
+                BasicBlock target = getBlockOf(edge.getTarget());
+                assert target.getFirstStmt() == edge.getTarget();
+                addEdge(toBlockEdge(edge, block, target));
+            }
+        }
+    }
+
+    /**
+     * @return true if given statement starts a basic block.
+     */
+    private boolean isLeader(Stmt stmt) {
+        Set<Stmt> preds = stmtCFG.getPredsOf(stmt);
+        return preds.size() != 1 || stmtCFG.isExit(stmt) ||
+                stmtCFG.getSuccsOf(preds.iterator().next()).size() != 1;
+    }
+
+    private void buildBlock(Stmt leader) {
+        List<Stmt> stmts = new ArrayList<>();
+        Stmt stmt = leader;
+        while (true) {
+            stmts.add(stmt);
+            Set<Stmt> succs = stmtCFG.getSuccsOf(stmt);
+            if (succs.size() != 1) {
+                break;
+            }
+            stmt = succs.iterator().next();
+            if (stmt == leader || isLeader(stmt)) {
+                break;
+            }
+        }
+        BasicBlock block = new BasicBlock(blockList.size(), stmts);
+        blockList.add(block);
+        for (Stmt s : stmts) {
+            blocks[s.getIndex()] = block;
+        }
+    }
+
+    private static Edge<BasicBlock> toBlockEdge(
+            Edge<Stmt> edge, BasicBlock source, BasicBlock target) {
+        if (edge.isSwitchCase()) {
+            return new SwitchCaseEdge<>(source, target, edge.getCaseValue());
+        } else if (edge.isExceptional()) {
+            return new ExceptionalEdge<>(edge.getKind(), source, target,
+                    edge.getExceptions());
+        } else {
+            return new Edge<>(edge.getKind(), source, target);
+        }
+    }
+
+    /**
+     * @return the statement CFG this view is built on.
+     */
+    public CFG<Stmt> getStmtCFG() {
+        return stmtCFG;
+    }
+
+    /**
+     * @return the block which contains given statement.
+     */
+    public BasicBlock getBlockOf(Stmt stmt) {
+        return blocks[stmt.getIndex()];
+    }
+
+    /**
+     * @return all blocks, where the block at position i has index i.
+     */
+    public List<BasicBlock> getBlocks() {
+        return Collections.unmodifiableList(blockList);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Runs per-method work in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * The analyses themselves are still run one method at a time by the
+ * analysis manager. This driver is used by {@link ResultProcessor} to
+ * dump and compare the results of different methods in parallel, which
+ * only reads the results held by the {@link IR} of each method.
+ * The results are consumed in the order of the given methods,
+ * so that the downstream processing is deterministic regardless of
+ * the scheduling of the work.
+ */
+public final class MethodAnalysisDriver implements AutoCloseable {
+
+    /**
+     * Key of the option which specifies the number of worker threads.
+     * If the option is absent or not positive, the common pool is used.
+     */
+    public static final String PARALLELISM = "parallelism";
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Whether {@link #pool} is created by (and should be shut down by)
+     * this driver.
+     */
+    private final boolean ownsPool;
+
+    /**
+     * The maximum number of methods that are processed or whose results
+     * are waiting to be consumed at the same time.
+     */
+    private final int window;
+
+    public MethodAnalysisDriver(int parallelism) {
+        if (parallelism > 0) {
+            pool = new ForkJoinPool(parallelism);
+            ownsPool = true;
+        } else {
+            pool = ForkJoinPool.commonPool();
+            ownsPool = false;
+        }
+        window = 4 * pool.getParallelism();
+    }
+
+    /**
+     * Creates a driver according to option {@link #PARALLELISM}
+     * of given options.
+     */
+    public static MethodAnalysisDriver of(AnalysisOptions options) {
+        Object parallelism = options.get(PARALLELISM);
+        return new MethodAnalysisDriver(parallelism instanceof Number n
+                ? n.intValue() : 0);
+    }
+
+    /**
+     * Applies given function to each method in parallel, and passes each
+     * method and its result to {@code consumer} in the order of the given
+     * methods, as soon as the results of the method and all previous methods
+     * are available. The consumer is called by the calling thread, one
+     * method at a time. At most four times as many methods as the
+     * parallelism are in flight, so only a bounded number of results
+     * are held in memory, regardless of the number of methods.
+     */
+    public <R> void mapOrdered(List<JMethod> methods,
+                               Function<? super JMethod, ? extends R> function,
+                               BiConsumer<? super JMethod, ? super R> consumer) {
+        Deque<ForkJoinTask<? extends R>> pending = new ArrayDeque<>(window);
+        int next = 0;
+        for (JMethod method : methods) {
+            while (next < methods.size() && pending.size() < window) {
+                JMethod m = methods.get(next++);
+                pending.add(pool.submit(() -> function.apply(m)));
+            }
+            consumer.accept(method, pending.poll().join());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+}
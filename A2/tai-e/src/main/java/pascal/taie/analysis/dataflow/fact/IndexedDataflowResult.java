@@ -0,0 +1,341 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link DataflowResult} which keeps the facts in arrays indexed by
+ * the nodes, e.g., by {@link pascal.taie.ir.stmt.Stmt#getIndex()}, instead
+ * of hash maps.
+ * <p>
+ * After solving, part of the facts can be discarded by
+ * {@link #retain(Retention, DataflowAnalysis, CFG)}, and the discarded
+ * (or never stored, see {@link #recomputeMissing(DataflowAnalysis, CFG)})
+ * facts are recomputed on demand from the present ones with the meet
+ * and transfer functions of the analysis, and then memoized.
+ * This is not thread-safe, so the result should be queried
+ * by one thread at a time.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    /**
+     * Which facts are kept after solving.
+     */
+    public enum Retention {
+
+        /**
+         * Keeps all facts.
+         */
+        ALL,
+
+        /**
+         * Keeps only flowing-in facts.
+         */
+        IN,
+
+        /**
+         * Keeps only flowing-out facts.
+         */
+        OUT,
+
+        /**
+         * Keeps only the facts flowing into basic blocks, i.e., the IN
+         * (OUT) facts of the first (last) nodes of the blocks for forward
+         * (backward) analysis, and the facts in the blocks are recomputed
+         * by transfer functions.
+         */
+        BLOCK;
+
+        /**
+         * @return the retention of given name, or {@link #ALL}
+         * if the name is null.
+         * @throws ConfigException if the name is invalid.
+         */
+        public static Retention of(@Nullable String name) {
+            if (name == null) {
+                return ALL;
+            }
+            return switch (name) {
+                case "all" -> ALL;
+                case "in" -> IN;
+                case "out" -> OUT;
+                case "block" -> BLOCK;
+                default -> throw new ConfigException(
+                        "Invalid fact retention: " + name
+                                + ", expected one of all/in/out/block");
+            };
+        }
+    }
+
+    private final ToIntFunction<? super Node> indexer;
+
+    private final Object[] inFacts;
+
+    private final Object[] outFacts;
+
+    /**
+     * Recomputes the discarded facts, or null if no facts are discarded.
+     */
+    @Nullable
+    private Recomputer recomputer;
+
+    /**
+     * @param indexer  maps each node to its index
+     * @param capacity the number of nodes, i.e., the indexes of
+     *                 the nodes are less than it
+     */
+    public IndexedDataflowResult(ToIntFunction<? super Node> indexer, int capacity) {
+        this.indexer = indexer;
+        this.inFacts = new Object[capacity];
+        this.outFacts = new Object[capacity];
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        return getFact(inFacts, node);
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        inFacts[indexer.applyAsInt(node)] = fact;
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        return getFact(outFacts, node);
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        outFacts[indexer.applyAsInt(node)] = fact;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact getFact(Object[] facts, Node node) {
+        int index = indexer.applyAsInt(node);
+        if (facts[index] == null && recomputer != null) {
+            recomputer.recompute(node);
+        }
+        return (Fact) facts[index];
+    }
+
+    /**
+     * Discards the facts that are not specified by {@code retention}.
+     * This must be called after the result of {@code cfg} is solved
+     * for {@code analysis}, and the transfer functions of the analysis
+     * must compute the same facts when they are applied again,
+     * which holds for monotone analyses.
+     */
+    public void retain(Retention retention,
+                       DataflowAnalysis<Node, Fact> analysis, CFG<Node> cfg) {
+        if (retention == Retention.ALL) {
+            return;
+        }
+        Recomputer rc = new Recomputer(analysis, cfg);
+        BitSet heads = retention == Retention.BLOCK ? rc.blockHeads() : null;
+        for (Node node : cfg) {
+            int index = indexer.applyAsInt(node);
+            switch (retention) {
+                case IN -> outFacts[index] = null;
+                case OUT -> inFacts[index] = null;
+                case BLOCK -> {
+                    rc.outputs[index] = null;
+                    if (!heads.get(index)) {
+                        rc.inputs[index] = null;
+                    }
+                }
+            }
+        }
+        // the boundary fact is not met from the facts of other nodes
+        int rootIndex = indexer.applyAsInt(rc.root);
+        if (rc.inputs[rootIndex] == null) {
+            rc.inputs[rootIndex] = rc.analysis.newBoundaryFact(cfg);
+        }
+        recomputer = rc;
+    }
+
+    /**
+     * Lets the facts that are missing from this result, e.g., the facts
+     * in basic blocks, be recomputed on demand from the facts that are
+     * present. For each node, either its input fact or the output facts
+     * of all its flow predecessors must be present, and the nodes whose
+     * input facts are missing must not form cycles.
+     */
+    public void recomputeMissing(DataflowAnalysis<Node, Fact> analysis,
+                                 CFG<Node> cfg) {
+        recomputer = new Recomputer(analysis, cfg);
+    }
+
+    /**
+     * Recomputes facts in the direction of the analysis, where the inputs
+     * are the facts met from the flow predecessors, and the outputs are
+     * the facts computed by transfer functions, i.e., IN and OUT facts
+     * (OUT and IN facts) for forward (backward) analysis, respectively.
+     */
+    private final class Recomputer {
+
+        private final DataflowAnalysis<Node, Fact> analysis;
+
+        private final CFG<Node> cfg;
+
+        private final Node root;
+
+        private final Object[] inputs;
+
+        private final Object[] outputs;
+
+        private Recomputer(DataflowAnalysis<Node, Fact> analysis, CFG<Node> cfg) {
+            this.analysis = analysis;
+            this.cfg = cfg;
+            if (analysis.isForward()) {
+                root = cfg.getEntry();
+                inputs = inFacts;
+                outputs = outFacts;
+            } else {
+                root = cfg.getExit();
+                inputs = outFacts;
+                outputs = inFacts;
+            }
+        }
+
+        private Set<Node> flowPredsOf(Node node) {
+            return analysis.isForward() ?
+                    cfg.getPredsOf(node) : cfg.getSuccsOf(node);
+        }
+
+        private Set<Node> flowSuccsOf(Node node) {
+            return analysis.isForward() ?
+                    cfg.getSuccsOf(node) : cfg.getPredsOf(node);
+        }
+
+        /**
+         * @return the indexes of the nodes which start basic blocks in
+         * the direction of the analysis, i.e., the nodes whose input facts
+         * are not simply the output facts of other nodes. Every node
+         * belongs to the block of the nearest head along its flow
+         * predecessors, so one node of each cycle that is not reachable
+         * from any head, e.g., an isolated infinite loop, is made a head.
+         */
+        private BitSet blockHeads() {
+            BitSet heads = new BitSet();
+            for (Node node : cfg) {
+                Set<Node> preds = flowPredsOf(node);
+                if (preds.size() != 1 ||
+                        flowSuccsOf(preds.iterator().next()).size() != 1) {
+                    heads.set(indexer.applyAsInt(node));
+                }
+            }
+            BitSet covered = new BitSet();
+            for (Node node : cfg) {
+                if (heads.get(indexer.applyAsInt(node))) {
+                    cover(node, heads, covered);
+                }
+            }
+            for (Node node : cfg) {
+                int index = indexer.applyAsInt(node);
+                if (!covered.get(index)) {
+                    heads.set(index);
+                    cover(node, heads, covered);
+                }
+            }
+            return heads;
+        }
+
+        /**
+         * Marks the nodes of the block started by given head as covered.
+         */
+        private void cover(Node head, BitSet heads, BitSet covered) {
+            Node node = head;
+            while (true) {
+                covered.set(indexer.applyAsInt(node));
+                Set<Node> succs = flowSuccsOf(node);
+                if (succs.size() != 1) {
+                    break;
+                }
+                node = succs.iterator().next();
+                if (heads.get(indexer.applyAsInt(node))) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Recomputes the missing facts of given node. A missing input fact
+         * is met from the output facts of the flow predecessors, which may
+         * be missing as well (inside a basic block), so this walks back
+         * to the nearest node whose facts suffice, and then recomputes
+         * (and memoizes) the facts of the nodes on the way forward.
+         */
+        @SuppressWarnings("unchecked")
+        private void recompute(Node node) {
+            Deque<Node> path = new ArrayDeque<>();
+            for (Node n = node; n != null; ) {
+                path.push(n);
+                Node next = null;
+                if (inputs[indexer.applyAsInt(n)] == null) {
+                    for (Node pred : flowPredsOf(n)) {
+                        if (outputs[indexer.applyAsInt(pred)] == null) {
+                            next = pred;
+                            break;
+                        }
+                    }
+                }
+                n = next;
+            }
+            while (!path.isEmpty()) {
+                Node n = path.pop();
+                int index = indexer.applyAsInt(n);
+                if (inputs[index] == null) {
+                    Fact input = analysis.newInitialFact();
+                    for (Node pred : flowPredsOf(n)) {
+                        analysis.meetInto((Fact) outputs[indexer.applyAsInt(pred)], input);
+                    }
+                    inputs[index] = input;
+                }
+                if (outputs[index] == null) {
+                    Fact input = (Fact) inputs[index];
+                    Fact output = analysis.newInitialFact();
+                    if (analysis.isForward()) {
+                        analysis.transferNode(n, input, output);
+                    } else {
+                        analysis.transferNode(n, output, input);
+                    }
+                    outputs[index] = output;
+                }
+            }
+        }
+    }
+}
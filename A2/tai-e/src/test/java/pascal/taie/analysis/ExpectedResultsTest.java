@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExpectedResultsTest {
+
+    private static final String FOO = "<A: void foo()>";
+
+    private static final String BAR = "<A: void bar()>";
+
+    private static String header(String method, String analysis) {
+        return "-------------------- " + method + " (" + analysis +
+                ") --------------------";
+    }
+
+    /**
+     * Writes the given lines to a temporary file, separated by
+     * {@code lineSeparator}, and maps the file.
+     */
+    private static ExpectedResults map(String lineSeparator, String... lines)
+            throws IOException {
+        Path file = Files.createTempFile("expected", ".txt");
+        // the mapped file cannot be deleted on some platforms
+        file.toFile().deleteOnExit();
+        Files.writeString(file, String.join(lineSeparator, lines),
+                StandardCharsets.UTF_8);
+        return ExpectedResults.map(file);
+    }
+
+    @Test
+    public void testCRLF() throws IOException {
+        ExpectedResults results = map("\r\n",
+                header(FOO, "livevar"),
+                "[0@L1] x = 1; []",
+                "[1@L2] return; []",
+                "",
+                header(BAR, "livevar"),
+                "[0@L5] return; []",
+                "");
+        assertEquals(List.of("[0@L1] x = 1; []", "[1@L2] return; []"),
+                List.copyOf(results.get(FOO, "livevar")));
+        assertEquals(Set.of("[0@L5] return; []"), results.get(BAR, "livevar"));
+    }
+
+    @Test
+    public void testMalformedHeader() throws IOException {
+        ExpectedResults results = map("\n",
+                header(FOO, "livevar"),
+                "[0@L1] x = 1; []",
+                // no method and analysis in this header
+                "-------------------- foo --------------------",
+                "[0@L5] return; []",
+                header(BAR, "livevar"),
+                "[1@L6] return; []");
+        // the malformed header ends the previous section,
+        // and the lines following it belong to no section
+        assertEquals(Set.of("[0@L1] x = 1; []"), results.get(FOO, "livevar"));
+        assertEquals(Set.of("[1@L6] return; []"), results.get(BAR, "livevar"));
+    }
+
+    @Test
+    public void testDuplicateSections() throws IOException {
+        ExpectedResults results = map("\n",
+                header(FOO, "livevar"),
+                "[0@L1] x = 1; []",
+                header(BAR, "livevar"),
+                "[0@L5] return; []",
+                header(FOO, "livevar"),
+                "[1@L2] return; []",
+                "[0@L1] x = 1; []",
+                "");
+        assertEquals(List.of("[0@L1] x = 1; []", "[1@L2] return; []"),
+                List.copyOf(results.get(FOO, "livevar")));
+        // the same method with another analysis is a different key
+        assertTrue(results.get(FOO, "constprop").isEmpty());
+    }
+
+    @Test
+    public void testEmptyTrailingSection() throws IOException {
+        // the file ends with a header without line feed
+        ExpectedResults results = map("\n",
+                header(FOO, "livevar"),
+                "[0@L1] x = 1; []",
+                header(BAR, "livevar"));
+        assertEquals(Set.of("[0@L1] x = 1; []"), results.get(FOO, "livevar"));
+        assertTrue(results.get(BAR, "livevar").isEmpty());
+        // and with a line feed
+        results = map("\n",
+                header(FOO, "livevar"),
+                "[0@L1] x = 1; []",
+                header(BAR, "livevar"),
+                "");
+        assertTrue(results.get(BAR, "livevar").isEmpty());
+    }
+
+    @Test
+    public void testLinesBeforeFirstHeader() throws IOException {
+        ExpectedResults results = map("\n",
+                "[0@L1] y = 2; []",
+                "",
+                header(FOO, "livevar"),
+                "[0@L1] x = 1; []");
+        assertEquals(Set.of("[0@L1] x = 1; []"), results.get(FOO, "livevar"));
+    }
+}
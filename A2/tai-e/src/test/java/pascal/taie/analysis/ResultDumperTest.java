@@ -0,0 +1,182 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResultDumperTest {
+
+    private static final String FOO = "<A: void foo(java.lang.String)>";
+
+    private static final String BAR = "<A: int bar()>";
+
+    /**
+     * Result lines that need JSON escapes, including the ones
+     * of control characters, and non-ASCII characters.
+     */
+    private static final List<String> LINES = List.of(
+            "[0@L3] s = \"a\\b\"; [s]",
+            "line\nfeed\r\ttab\001\037",
+            "中文 é");
+
+    /**
+     * Dumps the results of two methods, where the second one has no lines.
+     */
+    private static Path dump(String format) throws IOException {
+        Path file = Files.createTempFile("dump", "." + format);
+        file.toFile().deleteOnExit();
+        ResultDumper dumper = ResultDumper.open(file.toString(), format);
+        dumper.write(FOO, "livevar", LINES);
+        dumper.write(BAR, "livevar", List.of());
+        dumper.close();
+        return file;
+    }
+
+    @Test
+    public void testJsonl() throws IOException {
+        List<String> records = Files.readAllLines(dump("jsonl"),
+                StandardCharsets.UTF_8);
+        assertEquals(2, records.size());
+        assertEquals(Map.of("method", FOO, "analysis", "livevar",
+                "results", LINES), JsonParser.parse(records.get(0)));
+        assertEquals(Map.of("method", BAR, "analysis", "livevar",
+                "results", List.of()), JsonParser.parse(records.get(1)));
+    }
+
+    @Test
+    public void testText() throws IOException {
+        // the text format is read back by ExpectedResults, where
+        // the result lines are not escaped, and are split by line feeds
+        ExpectedResults results = ExpectedResults.map(dump("text"));
+        List<String> lines = LINES.stream()
+                .flatMap(line -> Stream.of(line.split("\n")))
+                .toList();
+        assertEquals(lines, List.copyOf(results.get(FOO, "livevar")));
+        assertTrue(results.get(BAR, "livevar").isEmpty());
+    }
+
+    /**
+     * Minimal parser of the JSON values of the dumped results,
+     * i.e., objects, arrays and strings. The strings must not contain
+     * raw control characters.
+     */
+    private static class JsonParser {
+
+        private final String text;
+
+        private int pos;
+
+        private JsonParser(String text) {
+            this.text = text;
+        }
+
+        private static Object parse(String text) {
+            JsonParser parser = new JsonParser(text);
+            Object value = parser.parseValue();
+            assertEquals(text.length(), parser.pos);
+            return value;
+        }
+
+        private Object parseValue() {
+            char c = text.charAt(pos);
+            if (c == '{') {
+                Map<String, Object> object = new LinkedHashMap<>();
+                ++pos;
+                if (!skip('}')) {
+                    do {
+                        String key = parseString();
+                        expect(':');
+                        object.put(key, parseValue());
+                    } while (skip(','));
+                    expect('}');
+                }
+                return object;
+            } else if (c == '[') {
+                List<Object> array = new ArrayList<>();
+                ++pos;
+                if (!skip(']')) {
+                    do {
+                        array.add(parseValue());
+                    } while (skip(','));
+                    expect(']');
+                }
+                return array;
+            } else {
+                return parseString();
+            }
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder builder = new StringBuilder();
+            while (true) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return builder.toString();
+                }
+                assertTrue(c >= 0x20);
+                if (c == '\\') {
+                    char e = text.charAt(pos++);
+                    switch (e) {
+                        case 'n' -> builder.append('\n');
+                        case 'r' -> builder.append('\r');
+                        case 't' -> builder.append('\t');
+                        case 'u' -> {
+                            builder.append((char) Integer.parseInt(
+                                    text.substring(pos, pos + 4), 16));
+                            pos += 4;
+                        }
+                        default -> builder.append(e);
+                    }
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+
+        private boolean skip(char c) {
+            if (text.charAt(pos) == c) {
+                ++pos;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            assertEquals(c, text.charAt(pos++));
+        }
+    }
+}
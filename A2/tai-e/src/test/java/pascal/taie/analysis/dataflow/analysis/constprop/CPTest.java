@@ -25,11 +25,17 @@ package pascal.taie.analysis.dataflow.analysis.constprop;
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
 
+import java.util.List;
+
 public class CPTest {
 
     void testCP(String inputClass) {
+        testCP(inputClass, "edge-refine:false");
+    }
+
+    void testCP(String inputClass, String opts) {
         Tests.test(inputClass, "src/test/resources/dataflow/constprop/",
-                ConstantPropagation.ID, "edge-refine:false");
+                ConstantPropagation.ID, opts);
     }
 
     @Test
@@ -66,4 +72,13 @@ public class CPTest {
     public void testInterprocedural() {
         testCP("Interprocedural");
     }
+
+    @Test
+    public void testRetainFacts() {
+        // the discarded facts are recomputed when the results are compared
+        for (String retention : List.of("in", "out", "block")) {
+            testCP("SimpleBranch", "edge-refine:false;retain-facts:" + retention);
+            testCP("BranchConstant", "edge-refine:false;retain-facts:" + retention);
+        }
+    }
 }
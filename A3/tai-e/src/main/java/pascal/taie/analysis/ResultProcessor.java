@@ -31,16 +31,9 @@ import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
-import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.MultiMap;
-import pascal.taie.util.collection.Pair;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.PrintStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -68,15 +61,22 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private final String action;
 
-    private PrintStream out;
+    private ResultDumper dumper;
 
-    private MultiMap<Pair<String, String>, String> inputs;
+    private ExpectedResults inputs;
 
     private Set<String> mismatches;
 
+    /**
+     * Whether the mismatches are logged, given by option
+     * {@code log-mismatches}.
+     */
+    private final boolean logMismatches;
+
     public ResultProcessor(AnalysisConfig config) {
         super(config);
         action = getOptions().getString("action");
+        logMismatches = getOptions().getBoolean("log-mismatches");
     }
 
     @Override
@@ -98,97 +98,90 @@ public class ResultProcessor extends ProgramAnalysis {
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
         }
-        if (getOptions().getBoolean("log-mismatches")) {
-            mismatches.forEach(logger::info);
+        if (dumper != null) {
+            dumper.close();
+            dumper = null;
         }
+        inputs = null;
         return mismatches;
     }
 
     private void setOutput() {
-        String output = getOptions().getString("file");
-        if (output != null) {
-            try {
-                out = new PrintStream(output);
-            } catch (FileNotFoundException e) {
-                throw new RuntimeException("Failed to open output file", e);
-            }
-        } else {
-            out = System.out;
-        }
+        dumper = ResultDumper.open(getOptions().getString("file"),
+                getOptions().getString("format"));
     }
 
     private void readInputs() {
-        String input = getOptions().getString("file");
-        Path path = Path.of(input);
-        try {
-            inputs = Maps.newMultiMap();
-            BufferedReader reader = Files.newBufferedReader(path);
-            String line;
-            Pair<String, String> currentKey = null;
-            while ((line = reader.readLine()) != null) {
-                Pair<String, String> key = extractKey(line);
-                if (key != null) {
-                    currentKey = key;
-                } else if (!line.isBlank()) {
-                    inputs.put(currentKey, line);
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read input file", e);
-        }
-    }
-
-    private static Pair<String, String> extractKey(String line) {
-        if (line.startsWith("----------") && line.endsWith("----------")) {
-            int ms = line.indexOf('<'); // method start
-            int me = line.indexOf("> "); // method end
-            String method = line.substring(ms, me + 1);
-            int as = line.lastIndexOf('('); // analysis start
-            int ae = line.lastIndexOf(')'); // analysis end
-            String analysis = line.substring(as + 1, ae);
-            return new Pair<>(method, analysis);
-        } else {
-            return null;
-        }
+        inputs = ExpectedResults.map(Path.of(getOptions().getString("file")));
     }
 
     private void processIntraResults(List<String> analyses) {
-        Stream<JMethod> methods = World.get()
+        List<JMethod> methods = sortMethods(World.get()
                 .getClassHierarchy()
                 .applicationClasses()
                 .map(JClass::getDeclaredMethods)
                 .flatMap(Collection::stream)
-                .filter(m -> !m.isAbstract() && !m.isNative())
-                .sorted(Comparator.comparing(m ->
-                        m.getIR().getStmt(0).getLineNumber()));
+                .filter(m -> !m.isAbstract() && !m.isNative()));
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
-    private void processResults(Stream<JMethod> methods, List<String> analyses,
+    /**
+     * Sorts the methods by the line numbers of their first statements,
+     * which are computed only once for each method.
+     */
+    private static List<JMethod> sortMethods(Stream<JMethod> methods) {
+        record Key(JMethod method, int line) {
+        }
+        return methods.map(m -> new Key(m, m.getIR().getStmt(0).getLineNumber()))
+                .sorted(Comparator.comparingInt(Key::line))
+                .map(Key::method)
+                .toList();
+    }
+
+    /**
+     * Processes the results of the methods in parallel. The output lines
+     * (for dump) or mismatches (for compare) of each method are written
+     * (collected) in the order of the methods, as soon as the method and all
+     * previous methods are processed, so that the output is deterministic
+     * and the outputs of only a bounded number of methods are in memory.
+     */
+    private void processResults(List<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
-        methods.forEach(method ->
-                analyses.forEach(id -> {
-                    switch (action) {
-                        case "dump" -> dumpResult(method, id, resultGetter);
-                        case "compare" -> compareResult(method, id, resultGetter);
-                    }
-                })
-        );
+        try (MethodAnalysisDriver driver = MethodAnalysisDriver.of(getOptions())) {
+            driver.mapOrdered(methods, method -> analyses.stream()
+                            .map(id -> {
+                                List<String> output = new ArrayList<>();
+                                switch (action) {
+                                    case "dump" -> dumpResult(method, id, resultGetter, output);
+                                    case "compare" -> compareResult(method, id, resultGetter, output);
+                                }
+                                return output;
+                            })
+                            .toList(),
+                    (method, outputs) -> {
+                        for (int i = 0; i < analyses.size(); ++i) {
+                            switch (action) {
+                                case "dump" -> dumper.write(method.toString(),
+                                        analyses.get(i), outputs.get(i));
+                                case "compare" -> outputs.get(i).forEach(this::addMismatch);
+                            }
+                        }
+                    });
+        }
     }
 
     private void dumpResult(JMethod method, String id,
-                            BiFunction<JMethod, String, ?> resultGetter) {
-        out.printf("-------------------- %s (%s) --------------------%n", method, id);
+                            BiFunction<JMethod, String, ?> resultGetter,
+                            List<String> lines) {
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
-            ((Set<?>) result).forEach(e -> out.println(toString(e)));
+            ((Set<?>) result).forEach(e -> lines.add(toString(e)));
         } else if (result instanceof StmtResult<?> StmtResult) {
             IR ir = method.getIR();
-            ir.forEach(stmt -> out.println(toString(stmt, StmtResult)));
+            ir.forEach(stmt -> lines.add(toString(stmt, StmtResult)));
         } else {
-            out.println(toString(result));
+            lines.add(toString(result));
         }
-        out.println();
     }
 
     /**
@@ -212,8 +205,9 @@ public class ResultProcessor extends ProgramAnalysis {
     }
 
     private void compareResult(JMethod method, String id,
-                               BiFunction<JMethod, String, ?> resultGetter) {
-        Set<String> inputResult = inputs.get(new Pair<>(method.toString(), id));
+                               BiFunction<JMethod, String, ?> resultGetter,
+                               Collection<String> mismatches) {
+        Set<String> inputResult = inputs.get(method.toString(), id);
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
             Set<String> given = ((Set<?>) result)
@@ -233,12 +227,15 @@ public class ResultProcessor extends ProgramAnalysis {
                 }
             });
         } else if (result instanceof StmtResult<?> StmtResult) {
-            Set<String> lines = inputs.get(new Pair<>(method.toString(), id));
             IR ir = method.getIR();
             ir.forEach(stmt -> {
                 String stmtStr = toString(stmt);
                 String given = toString(stmt, StmtResult);
-                for (String line : lines) {
+                if (inputResult.contains(given)) {
+                    // fast path: the expected line is found by its hash
+                    return;
+                }
+                for (String line : inputResult) {
                     if (line.startsWith(stmtStr) && !line.equals(given)) {
                         int idx = stmtStr.length();
                         mismatches.add(String.format("%s %s expected: %s, given: %s",
@@ -258,4 +255,14 @@ public class ResultProcessor extends ProgramAnalysis {
                     id, method, inputResult, result);
         }
     }
+
+    /**
+     * Adds a mismatch, and logs it as soon as it is found
+     * if {@link #logMismatches} is true.
+     */
+    private void addMismatch(String mismatch) {
+        if (mismatches.add(mismatch) && logMismatches) {
+            logger.info(mismatch);
+        }
+    }
 }
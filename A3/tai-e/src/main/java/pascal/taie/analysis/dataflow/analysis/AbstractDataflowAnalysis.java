@@ -24,12 +24,16 @@ package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult.Retention;
+import pascal.taie.analysis.dataflow.solver.BlockSolver;
 import pascal.taie.analysis.dataflow.solver.Solver;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
 
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
@@ -37,15 +41,52 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
 
     private final Solver<Node, Fact> solver;
 
+    /**
+     * Which facts are kept in the results, given by option
+     * {@code retain-facts} (all/in/out/block, all by default).
+     * The other facts are recomputed when they are queried.
+     * <p>
+     * With in/out, the solver still keeps both facts of every node while
+     * solving, and the other facts are discarded afterwards, so this only
+     * reduces the memory retained by the results, not the peak memory.
+     * With block, statement CFGs are solved on their basic blocks
+     * (as with {@code solve-blocks}), so the facts in the blocks are
+     * never allocated during solving either.
+     */
+    private final Retention retention;
+
+    /**
+     * Whether statement CFGs are solved on their basic blocks,
+     * given by option {@code solve-blocks}.
+     */
+    private final boolean solveBlocks;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
         solver = Solver.makeSolver(this);
+        retention = Retention.of(getOptions().getString("retain-facts"));
+        solveBlocks = getOptions().getBooleanOrDefault("solve-blocks", false);
     }
 
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
-        return solver.solve(cfg);
+        DataflowResult<Node, Fact> result =
+                (solveBlocks || retention == Retention.BLOCK)
+                        && cfg.getEntry() instanceof Stmt ?
+                        solveBlocks(cfg) : solver.solve(cfg);
+        if (result instanceof IndexedDataflowResult<Node, Fact> indexed) {
+            indexed.retain(retention, this, cfg);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private DataflowResult<Node, Fact> solveBlocks(CFG<Node> cfg) {
+        // the nodes are statements, which is checked by the caller
+        DataflowAnalysis<Stmt, Fact> analysis = (DataflowAnalysis<Stmt, Fact>) this;
+        return (DataflowResult<Node, Fact>)
+                new BlockSolver<>(analysis).solve((CFG<Stmt>) cfg);
     }
 
     /**
@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
@@ -37,10 +38,13 @@ import pascal.taie.ir.stmt.AssignStmt;
 import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.SwitchStmt;
-import pascal.taie.util.collection.Pair;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class DeadCodeDetection extends MethodAnalysis {
 
@@ -60,26 +64,94 @@ public class DeadCodeDetection extends MethodAnalysis {
         // obtain result of live variable analysis
         DataflowResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariableAnalysis.ID);
-        // keep statements (dead code) sorted in the resulting set
-        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
-        // TODO - finish me
-        // Your task is to recognize dead code in ir and add it to deadCode
-        // Control Flow Unreachable
-        analyzeControlFlowUnreachable(cfg, deadCode, ir);
-
-        // If Branch Unreachable
-        analyzeIfStmtUnreachable(cfg, deadCode, constants);
+        BitSet reachable = computeReachable(cfg, constants);
+        // statements are visited in the order of their indexes,
+        // so that the dead code is sorted in the resulting set
+        Set<Stmt> deadCode = new LinkedHashSet<>();
+        for (Stmt stmt : ir.getStmts()) {
+            if (!reachable.get(stmt.getIndex()) ||
+                    isUselessAssignment(stmt, liveVars)) {
+                deadCode.add(stmt);
+            }
+        }
+        return deadCode;
+    }
 
-        // Switch Branch Unreachable
-        analyzeSwitchStmtUnreachable(cfg, deadCode, constants);
+    /**
+     * Computes the statements that are reachable from the entry of CFG
+     * along the edges which are feasible under the constants, i.e.,
+     * control-flow unreachable code and unreachable branches are
+     * detected in a single traversal.
+     *
+     * @return the indexes of reachable statements.
+     */
+    private static BitSet computeReachable(
+            CFG<Stmt> cfg, DataflowResult<Stmt, CPFact> constants) {
+        BitSet reachable = new BitSet(cfg.getNumberOfNodes());
+        Deque<Stmt> workList = new ArrayDeque<>();
+        reachable.set(cfg.getEntry().getIndex());
+        workList.add(cfg.getEntry());
+        while (!workList.isEmpty()) {
+            Stmt stmt = workList.poll();
+            Value cond = evaluateCondition(stmt, constants);
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                Stmt target = edge.getTarget();
+                if (!reachable.get(target.getIndex()) && isFeasible(edge, cond)) {
+                    reachable.set(target.getIndex());
+                    workList.add(target);
+                }
+            }
+        }
+        return reachable;
+    }
 
-        // Propagate Unreachable Control Flow
-        propagateUnreachable(cfg, deadCode);
+    /**
+     * @return the value of the condition of given if or switch statement,
+     * or {@code null} if the statement is neither of them.
+     */
+    @Nullable
+    private static Value evaluateCondition(
+            Stmt stmt, DataflowResult<Stmt, CPFact> constants) {
+        if (stmt instanceof If ifStmt) {
+            return ConstantPropagation.evaluate(
+                    ifStmt.getCondition(), constants.getOutFact(stmt));
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            return constants.getOutFact(stmt).get(switchStmt.getVar());
+        } else {
+            return null;
+        }
+    }
 
-        // Useless Assignment
-        analyzeUselessAssignment(cfg, deadCode, liveVars);
+    /**
+     * @param cond the value of the condition of the source of given edge
+     * @return false if the edge can never be taken under the constant
+     * condition, otherwise true.
+     */
+    private static boolean isFeasible(Edge<Stmt> edge, @Nullable Value cond) {
+        if (cond == null || !cond.isConstant()) {
+            return true;
+        }
+        int c = cond.getConstant();
+        return switch (edge.getKind()) {
+            case IF_TRUE -> c != 0;
+            case IF_FALSE -> c == 0;
+            case SWITCH_CASE -> edge.getCaseValue() == c;
+            case SWITCH_DEFAULT -> !((SwitchStmt) edge.getSource())
+                    .getCaseValues().contains(c);
+            default -> true;
+        };
+    }
 
-        return deadCode;
+    /**
+     * @return true if given statement assigns a variable which is
+     * not live afterwards, and the assignment has no side effect.
+     */
+    private static boolean isUselessAssignment(
+            Stmt stmt, DataflowResult<Stmt, SetFact<Var>> liveVars) {
+        return stmt instanceof AssignStmt<?, ?> assign &&
+                assign.getLValue() instanceof Var lVar &&
+                hasNoSideEffect(assign.getRValue()) &&
+                !liveVars.getOutFact(stmt).contains(lVar);
     }
 
     /**
@@ -104,146 +176,4 @@ public class DeadCodeDetection extends MethodAnalysis {
         }
         return true;
     }
-
-    private void analyzeControlFlowUnreachable(CFG<Stmt> cfg, Set<Stmt> deadCode, IR ir) {
-        Set<Stmt> controlFlowReachable = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
-        Queue<Stmt> q = new ConcurrentLinkedQueue<>();
-        q.add(cfg.getEntry());
-        while(!q.isEmpty()) {
-            Stmt now = q.remove();
-            controlFlowReachable.add(now);
-            for(Stmt suc: cfg.getSuccsOf(now)) {
-                if(!q.contains(suc) && !controlFlowReachable.contains(suc)) {
-                    q.add(suc);
-                }
-            }
-        }
-        for(Stmt stmt: ir.getStmts()) {
-            if(!controlFlowReachable.contains(stmt)) {
-                deadCode.add(stmt);
-            }
-        }
-    }
-
-    private void analyzeIfStmtUnreachable(CFG<Stmt> cfg, Set<Stmt> deadCode, DataflowResult<Stmt, CPFact> constants) {
-        for(Stmt stmt: cfg) {
-            if(stmt instanceof If ifStmt) {
-                Var lVar = ifStmt.getCondition().getOperand1();
-                Var rVar = ifStmt.getCondition().getOperand2();
-                ConditionExp.Op op = ifStmt.getCondition().getOperator();
-                if(constants.getOutFact(ifStmt).get(lVar).isConstant() && constants.getOutFact(ifStmt).get(rVar).isConstant()) {
-                    int v1 = constants.getOutFact(ifStmt).get(lVar).getConstant();
-                    int v2 = constants.getOutFact(ifStmt).get(rVar).getConstant();
-                    boolean eval = evaluateOp(v1, v2, op);
-                    for(Edge<Stmt> edge: cfg.getOutEdgesOf(ifStmt)) {
-                        if(Edge.Kind.IF_TRUE == edge.getKind() && !eval) {
-                            deadCode.add(edge.getTarget());
-                        } else if(Edge.Kind.IF_FALSE == edge.getKind() && eval) {
-                            deadCode.add(edge.getTarget());
-                        }
-                    }
-                }
-            }
-        }
-    }
-
-    private void analyzeSwitchStmtUnreachable(CFG<Stmt> cfg, Set<Stmt> deadCode, DataflowResult<Stmt, CPFact> constants) {
-        for(Stmt stmt: cfg) {
-            if(stmt instanceof SwitchStmt switchStmt) {
-                Var var = switchStmt.getVar();
-                if(constants.getOutFact(stmt).get(var).isConstant()) {
-                    boolean match = false;
-                    Stmt matchStmt = null;
-                    int v = constants.getOutFact(stmt).get(var).getConstant();
-                    for(Pair<Integer, Stmt> pair :switchStmt.getCaseTargets()) {
-                        if(v != pair.first()) {
-                            deadCode.add(pair.second());
-                        } else {
-                            match = true;
-                            matchStmt = pair.second();;
-                        }
-                    }
-                    if(match) { // if any case is matched, default is unreachable
-                        deadCode.add(switchStmt.getDefaultTarget());
-                        recoverFallThrough(cfg, matchStmt, deadCode); // handle fall through cases
-                    }
-                }
-            }
-        }
-    }
-
-    private void analyzeUselessAssignment(CFG<Stmt> cfg, Set<Stmt> deadCode, DataflowResult<Stmt, SetFact<Var>> liveVars) {
-        for(Stmt stmt: cfg) {
-            if(stmt instanceof AssignStmt<?,?> assignStmt) {
-                LValue lVal = assignStmt.getLValue();
-                RValue rVal = assignStmt.getRValue();
-                if(hasNoSideEffect(rVal) && lVal instanceof Var lvar && !liveVars.getOutFact(assignStmt).contains(lvar)) {
-                    deadCode.add(assignStmt);
-                }
-            }
-        }
-    }
-
-    private void propagateUnreachable(CFG<Stmt> cfg, Set<Stmt> deadCode) {
-        Queue<Stmt> q = new ConcurrentLinkedQueue<>(deadCode);
-        while(!q.isEmpty()) {
-            Stmt now = q.remove();
-            deadCode.add(now);
-            for(Stmt suc: cfg.getSuccsOf(now)) {
-                boolean unreachable = true;
-                for(Stmt sucPre: cfg.getPredsOf(suc)) {
-                    if(!deadCode.contains(sucPre)) {
-                        unreachable = false;
-                        break;
-                    }
-                }
-                if(unreachable && !cfg.isExit(suc)) { // exclude exit
-                    if(!q.contains(suc) && !deadCode.contains(suc)) {
-                        q.add(suc);
-                    }
-                }
-            }
-        }
-    }
-
-    private void recoverFallThrough(CFG<Stmt> cfg, Stmt stmt, Set<Stmt> deadCode) {
-        Queue<Stmt> q = new ConcurrentLinkedQueue<>();
-        Set<Stmt> visit = new HashSet<>();
-        q.add(stmt);
-        while(!q.isEmpty()) {
-            Stmt now = q.remove();
-            visit.add(now);
-            for(Stmt suc: cfg.getSuccsOf(now)) {
-                deadCode.remove(suc);
-                if(!visit.contains(suc)) {
-                    q.add(suc);
-                }
-            }
-        }
-    }
-
-    private boolean evaluateOp(int v1, int v2, ConditionExp.Op op) {
-        switch(op) {
-            case NE -> {
-                return v1 != v2;
-            }
-            case LT -> {
-                return v1 < v2;
-            }
-            case LE -> {
-                return v1 <= v2;
-            }
-            case GT -> {
-                return v1 > v2;
-            }
-            case GE -> {
-                return v1 >= v2;
-            }
-            case EQ -> {
-                return v1 == v2;
-            }
-        }
-        return false;
-    }
-
 }
@@ -22,9 +22,11 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.LValue;
 import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
@@ -35,14 +37,35 @@ import java.util.Optional;
 
 /**
  * Implementation of classic live variable analysis.
+ * <p>
+ * When option {@code bit-vector} is enabled, the analysis is performed
+ * by {@link BitVectorDataflowAnalysis}, which represents the facts by
+ * bit vectors over the variables of each method, and precomputes the
+ * gen/kill sets of each statement before solving.
  */
 public class LiveVariableAnalysis extends
         AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
 
     public static final String ID = "livevar";
 
+    /**
+     * The analysis that does the work in bit-vector mode, or null if
+     * bit-vector mode is disabled.
+     */
+    private final BitVectorLiveVariableAnalysis bitVectorAnalysis;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        bitVectorAnalysis = getOptions().getBooleanOrDefault("bit-vector", false)
+                ? new BitVectorLiveVariableAnalysis(config) : null;
+    }
+
+    @Override
+    public DataflowResult<Stmt, SetFact<Var>> analyze(IR ir) {
+        if (bitVectorAnalysis != null) {
+            return bitVectorAnalysis.analyze(ir);
+        }
+        return super.analyze(ir);
     }
 
     @Override
@@ -98,4 +121,45 @@ public class LiveVariableAnalysis extends
             return true;
         }
     }
+
+    /**
+     * Bit-vector implementation of live variable analysis.
+     */
+    private static class BitVectorLiveVariableAnalysis
+            extends BitVectorDataflowAnalysis<Var> {
+
+        private BitVectorLiveVariableAnalysis(AnalysisConfig config) {
+            super(config);
+        }
+
+        @Override
+        public boolean isForward() {
+            return false;
+        }
+
+        @Override
+        public boolean isMust() {
+            return false;
+        }
+
+        @Override
+        protected Domain<Var> makeDomain(IR ir) {
+            return new Domain<>(ir.getVars(), Var::getIndex);
+        }
+
+        @Override
+        protected void computeGenKill(IR ir, Domain<Var> domain, GenKill<Var> genKill) {
+            for (Stmt stmt : ir) {
+                if (stmt.getDef().isPresent() &&
+                        stmt.getDef().get() instanceof Var defVar) {
+                    genKill.kill(stmt, defVar);
+                }
+                for (RValue use : stmt.getUses()) {
+                    if (use instanceof Var useVar) {
+                        genKill.gen(stmt, useVar);
+                    }
+                }
+            }
+        }
+    }
 }
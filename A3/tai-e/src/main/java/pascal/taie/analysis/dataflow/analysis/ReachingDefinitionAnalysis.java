@@ -0,0 +1,79 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+/**
+ * Implementation of classic reaching definition analysis.
+ * The data-flow facts are the statements that define variables.
+ */
+public class ReachingDefinitionAnalysis extends BitVectorDataflowAnalysis<Stmt> {
+
+    public static final String ID = "reachdef";
+
+    public ReachingDefinitionAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public boolean isMust() {
+        return false;
+    }
+
+    @Override
+    protected Domain<Stmt> makeDomain(IR ir) {
+        return new Domain<>(ir.getStmts(), Stmt::getIndex);
+    }
+
+    @Override
+    protected void computeGenKill(IR ir, Domain<Stmt> domain, GenKill<Stmt> genKill) {
+        MultiMap<Var, Stmt> defs = Maps.newMultiMap();
+        for (Stmt stmt : ir) {
+            if (stmt.getDef().isPresent() &&
+                    stmt.getDef().get() instanceof Var var) {
+                defs.put(var, stmt);
+            }
+        }
+        for (Stmt stmt : ir) {
+            if (stmt.getDef().isPresent() &&
+                    stmt.getDef().get() instanceof Var var) {
+                // kill all definitions of var, including stmt itself,
+                // which is then generated again
+                defs.get(var).forEach(def -> genKill.kill(stmt, def));
+                genKill.gen(stmt, stmt);
+            }
+        }
+    }
+}
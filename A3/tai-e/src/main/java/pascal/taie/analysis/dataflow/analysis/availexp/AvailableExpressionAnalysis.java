@@ -0,0 +1,116 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.availexp;
+
+import pascal.taie.analysis.dataflow.analysis.BitVectorDataflowAnalysis;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of classic available expression analysis.
+ * <p>
+ * The data-flow facts are the binary expressions on the right-hand side
+ * of definition statements. Expression objects are different for each
+ * statement in IR, so the expressions with the same operator and operands
+ * are treated as the same expression, and are represented by the first
+ * one of them in the method.
+ */
+public class AvailableExpressionAnalysis extends BitVectorDataflowAnalysis<BinaryExp> {
+
+    public static final String ID = "availexp";
+
+    public AvailableExpressionAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public boolean isMust() {
+        return true;
+    }
+
+    @Override
+    protected Domain<BinaryExp> makeDomain(IR ir) {
+        List<BinaryExp> exps = new ArrayList<>();
+        Map<ExpKey, Integer> indexes = Maps.newMap();
+        for (Stmt stmt : ir) {
+            if (stmt instanceof DefinitionStmt<?, ?> def &&
+                    def.getRValue() instanceof BinaryExp exp) {
+                if (indexes.putIfAbsent(ExpKey.of(exp), exps.size()) == null) {
+                    exps.add(exp);
+                }
+            }
+        }
+        return new Domain<>(exps, exp -> indexes.getOrDefault(ExpKey.of(exp), -1));
+    }
+
+    @Override
+    protected void computeGenKill(IR ir, Domain<BinaryExp> domain,
+                                  GenKill<BinaryExp> genKill) {
+        MultiMap<Var, BinaryExp> expsOf = Maps.newMultiMap();
+        for (BinaryExp exp : domain.elements()) {
+            expsOf.put(exp.getOperand1(), exp);
+            expsOf.put(exp.getOperand2(), exp);
+        }
+        for (Stmt stmt : ir) {
+            Var def = stmt.getDef().isPresent() &&
+                    stmt.getDef().get() instanceof Var var ? var : null;
+            if (def != null) {
+                expsOf.get(def).forEach(exp -> genKill.kill(stmt, exp));
+            }
+            if (stmt instanceof DefinitionStmt<?, ?> defStmt &&
+                    defStmt.getRValue() instanceof BinaryExp exp &&
+                    // e.g., x = x + 1 does not make x + 1 available
+                    !exp.getOperand1().equals(def) &&
+                    !exp.getOperand2().equals(def)) {
+                genKill.gen(stmt, exp);
+            }
+        }
+    }
+
+    /**
+     * Identifies binary expressions by their operators and operands.
+     */
+    private record ExpKey(BinaryExp.Op op, Var operand1, Var operand2) {
+
+        private static ExpKey of(BinaryExp exp) {
+            return new ExpKey(exp.getOperator(),
+                    exp.getOperand1(), exp.getOperand2());
+        }
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Sparse conditional constant propagation (Wegman and Zadeck) on
+ * the def-use chains of a method.
+ * <p>
+ * As the IR is not in SSA form, the def-use chains are computed by
+ * reaching definitions, where the initial values of the parameters are
+ * regarded as definitions at the entry of the method. The lattice value of
+ * each definition is then propagated along the def-use chains: a statement
+ * is only (re-)evaluated when it becomes executable or when the value of
+ * a definition that it uses changes, and only the targets of the feasible
+ * branches of if and switch statements become executable.
+ * <p>
+ * The result is converted to a {@link DataflowResult} in the same form as
+ * the one of {@link ConstantPropagation}, in which the facts of the
+ * statements that are never executable are empty, i.e., all variables
+ * are UNDEF.
+ * <p>
+ * The propagation itself visits each def-use edge a bounded number of
+ * times, as a definition only changes its value twice (UNDEF to constant
+ * to NAC). The analysis is not linear in the size of the method, however:
+ * the reaching definitions are bit vectors over all definitions, so each
+ * pass over the CFG costs O(#statements * #definitions / 64), and the
+ * def-use chains can have up to O(#statements * #definitions) edges.
+ */
+class SparseConstantPropagation {
+
+    private final ConstantPropagation cp;
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Number of statements in the IR. The definitions are numbered
+     * as follows: a statement that defines an int variable is numbered
+     * by its index, and the initial value of the i-th parameter is
+     * numbered by {@code nStmts + i}.
+     */
+    private final int nStmts;
+
+    /**
+     * The variable defined by each definition, or null if the number
+     * is not a definition of int variable.
+     */
+    private final Var[] defVars;
+
+    /**
+     * Definitions of each variable, indexed by {@link Var#getIndex()}.
+     */
+    private final int[][] defsOfVars;
+
+    /**
+     * Reaching definitions at the entry of each node,
+     * as bit vectors over the definitions.
+     */
+    private final long[][] reachingDefs;
+
+    /**
+     * Int variables used by each statement.
+     */
+    private final Var[][] usedVars;
+
+    /**
+     * Definitions of the used variables which reach each statement,
+     * aligned with {@link #usedVars}.
+     */
+    private final int[][][] useDefs;
+
+    /**
+     * Statements which use each definition.
+     */
+    private final List<List<Stmt>> users;
+
+    /**
+     * Lattice value of each definition.
+     */
+    private final Value[] values;
+
+    private final boolean[] executable;
+
+    SparseConstantPropagation(ConstantPropagation cp, IR ir) {
+        this.cp = cp;
+        this.cfg = ir.getResult(CFGBuilder.ID);
+        this.nStmts = ir.getStmts().size();
+        List<Var> params = ir.getParams();
+        int nDefs = nStmts + params.size();
+        this.defVars = new Var[nDefs];
+        this.defsOfVars = new int[ir.getVars().size()][];
+        this.values = new Value[nDefs];
+        Arrays.fill(values, Value.getUndef());
+        collectDefinitions(ir);
+        // the entry and exit of CFG are numbered after the statements
+        this.reachingDefs = new long[nStmts + 2][(nDefs + 63) >>> 6];
+        computeReachingDefinitions();
+        this.usedVars = new Var[nStmts][];
+        this.useDefs = new int[nStmts][][];
+        this.users = new ArrayList<>(nDefs);
+        for (int i = 0; i < nDefs; ++i) {
+            users.add(List.of());
+        }
+        buildDefUseChains(ir);
+        this.executable = new boolean[nStmts + 2];
+    }
+
+    private void collectDefinitions(IR ir) {
+        int[] nDefsOfVars = new int[defsOfVars.length];
+        for (Stmt stmt : ir) {
+            if (stmt instanceof DefinitionStmt<?, ?> defStmt
+                    && defStmt.getLValue() instanceof Var var
+                    && ConstantPropagation.canHoldInt(var)) {
+                defVars[stmt.getIndex()] = var;
+                ++nDefsOfVars[var.getIndex()];
+            }
+        }
+        List<Var> params = ir.getParams();
+        for (int i = 0; i < params.size(); ++i) {
+            Var param = params.get(i);
+            if (ConstantPropagation.canHoldInt(param)) {
+                defVars[nStmts + i] = param;
+                values[nStmts + i] = Value.getNAC();
+                ++nDefsOfVars[param.getIndex()];
+            }
+        }
+        for (int i = 0; i < defsOfVars.length; ++i) {
+            defsOfVars[i] = new int[nDefsOfVars[i]];
+        }
+        for (int d = 0; d < defVars.length; ++d) {
+            Var var = defVars[d];
+            if (var != null) {
+                int v = var.getIndex();
+                defsOfVars[v][defsOfVars[v].length - nDefsOfVars[v]--] = d;
+            }
+        }
+    }
+
+    /**
+     * Computes the reaching definitions by a work-list algorithm
+     * on bit vectors.
+     */
+    private void computeReachingDefinitions() {
+        long[] out = new long[reachingDefs[0].length];
+        BitSet visited = new BitSet(reachingDefs.length);
+        BitSet workList = new BitSet(reachingDefs.length);
+        workList.set(cfg.getEntry().getIndex());
+        for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            visited.set(i);
+            Stmt node = getNode(i);
+            transfer(node, out);
+            for (Stmt succ : cfg.getSuccsOf(node)) {
+                int s = succ.getIndex();
+                if (union(reachingDefs[s], out) || !visited.get(s)) {
+                    workList.set(s);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the reaching definitions at the exit of given node.
+     */
+    private void transfer(Stmt node, long[] out) {
+        int i = node.getIndex();
+        System.arraycopy(reachingDefs[i], 0, out, 0, out.length);
+        if (i < nStmts) {
+            Var def = defVars[i];
+            if (def != null) {
+                for (int d : defsOfVars[def.getIndex()]) {
+                    out[d >>> 6] &= ~(1L << d);
+                }
+                out[i >>> 6] |= 1L << i;
+            }
+        } else if (cfg.isEntry(node)) {
+            for (int d = nStmts; d < defVars.length; ++d) {
+                if (defVars[d] != null) {
+                    out[d >>> 6] |= 1L << d;
+                }
+            }
+        }
+    }
+
+    private static boolean union(long[] target, long[] bits) {
+        long changed = 0;
+        for (int i = 0; i < target.length; ++i) {
+            long old = target[i];
+            long word = old | bits[i];
+            changed |= old ^ word;
+            target[i] = word;
+        }
+        return changed != 0;
+    }
+
+    private static boolean contains(long[] bits, int d) {
+        return (bits[d >>> 6] & (1L << d)) != 0;
+    }
+
+    private void buildDefUseChains(IR ir) {
+        for (Stmt stmt : ir) {
+            int i = stmt.getIndex();
+            long[] reaching = reachingDefs[i];
+            Var[] vars = stmt.getUses()
+                    .stream()
+                    .filter(use -> use instanceof Var var
+                            && ConstantPropagation.canHoldInt(var))
+                    .distinct()
+                    .toArray(Var[]::new);
+            int[][] defs = new int[vars.length][];
+            for (int j = 0; j < vars.length; ++j) {
+                defs[j] = Arrays.stream(defsOfVars[vars[j].getIndex()])
+                        .filter(d -> contains(reaching, d))
+                        .toArray();
+                for (int d : defs[j]) {
+                    if (users.get(d).isEmpty()) {
+                        users.set(d, new ArrayList<>());
+                    }
+                    users.get(d).add(stmt);
+                }
+            }
+            usedVars[i] = vars;
+            useDefs[i] = defs;
+        }
+    }
+
+    DataflowResult<Stmt, CPFact> solve() {
+        BitSet workList = new BitSet(executable.length);
+        markExecutable(cfg.getEntry(), workList);
+        CPFact uses = new CPFact();
+        for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            Stmt node = getNode(i);
+            if (i < nStmts) {
+                collectUses(i, uses);
+            }
+            if (node instanceof DefinitionStmt<?, ?> defStmt && defVars[i] != null) {
+                RValue rValue = defStmt.getRValue();
+                Value value = cp.meetValue(values[i],
+                        ConstantPropagation.evaluate(rValue, uses));
+                if (!value.equals(values[i])) {
+                    values[i] = value;
+                    for (Stmt user : users.get(i)) {
+                        if (executable[user.getIndex()]) {
+                            workList.set(user.getIndex());
+                        }
+                    }
+                }
+            }
+            if (node instanceof If ifStmt) {
+                Value cond = ConstantPropagation.evaluate(ifStmt.getCondition(), uses);
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                    if (isFeasible(edge, cond)) {
+                        markExecutable(edge.getTarget(), workList);
+                    }
+                }
+            } else if (node instanceof SwitchStmt switchStmt) {
+                Value value = uses.get(switchStmt.getVar());
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                    if (isFeasible(edge, switchStmt, value)) {
+                        markExecutable(edge.getTarget(), workList);
+                    }
+                }
+            } else {
+                for (Stmt succ : cfg.getSuccsOf(node)) {
+                    markExecutable(succ, workList);
+                }
+            }
+        }
+        return makeResult();
+    }
+
+    private Stmt getNode(int index) {
+        if (index < nStmts) {
+            return cfg.getIR().getStmt(index);
+        } else {
+            return index == nStmts ? cfg.getEntry() : cfg.getExit();
+        }
+    }
+
+    private void markExecutable(Stmt node, BitSet workList) {
+        int i = node.getIndex();
+        if (!executable[i]) {
+            executable[i] = true;
+            workList.set(i);
+        }
+    }
+
+    /**
+     * Sets the values of the variables used by given statement to {@code uses}.
+     */
+    private void collectUses(int stmt, CPFact uses) {
+        uses.clear();
+        Var[] vars = usedVars[stmt];
+        int[][] defs = useDefs[stmt];
+        for (int j = 0; j < vars.length; ++j) {
+            Value value = Value.getUndef();
+            for (int d : defs[j]) {
+                value = cp.meetValue(value, values[d]);
+            }
+            uses.update(vars[j], value);
+        }
+    }
+
+    private static boolean isFeasible(Edge<Stmt> edge, Value cond) {
+        return switch (edge.getKind()) {
+            case IF_TRUE -> cond.isNAC()
+                    || (cond.isConstant() && cond.getConstant() != 0);
+            case IF_FALSE -> cond.isNAC()
+                    || (cond.isConstant() && cond.getConstant() == 0);
+            default -> true;
+        };
+    }
+
+    private static boolean isFeasible(Edge<Stmt> edge, SwitchStmt switchStmt, Value value) {
+        return switch (edge.getKind()) {
+            case SWITCH_CASE -> value.isNAC()
+                    || (value.isConstant() && value.getConstant() == edge.getCaseValue());
+            case SWITCH_DEFAULT -> value.isNAC()
+                    || (value.isConstant()
+                    && !switchStmt.getCaseValues().contains(value.getConstant()));
+            default -> true;
+        };
+    }
+
+    private DataflowResult<Stmt, CPFact> makeResult() {
+        DataflowResult<Stmt, CPFact> result = new IndexedDataflowResult<>(
+                Stmt::getIndex, nStmts + 2);
+        long[] out = new long[reachingDefs[0].length];
+        for (Stmt node : cfg) {
+            if (executable[node.getIndex()]) {
+                transfer(node, out);
+                CPFact outFact = makeFact(out);
+                // IN and OUT facts of entry are both the boundary fact
+                result.setInFact(node, cfg.isEntry(node) ? outFact.copy()
+                        : makeFact(reachingDefs[node.getIndex()]));
+                result.setOutFact(node, outFact);
+            } else {
+                result.setInFact(node, cp.newInitialFact());
+                result.setOutFact(node, cp.newInitialFact());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the fact of the variables defined by given definitions.
+     */
+    private CPFact makeFact(long[] defs) {
+        CPFact fact = cp.newInitialFact();
+        for (int i = 0; i < defs.length; ++i) {
+            for (long word = defs[i]; word != 0; word &= word - 1) {
+                int d = (i << 6) + Long.numberOfTrailingZeros(word);
+                Var var = defVars[d];
+                fact.update(var, cp.meetValue(fact.get(var), values[d]));
+            }
+        }
+        return fact;
+    }
+}
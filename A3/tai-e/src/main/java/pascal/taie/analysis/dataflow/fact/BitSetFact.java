@@ -0,0 +1,345 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Set-like data-flow facts represented by bit vectors.
+ * <p>
+ * The elements are numbered densely by an indexer, e.g.,
+ * {@link pascal.taie.util.Indexable#getIndex()}, and the facts of the same
+ * method share the same list of elements (the universe), in which each
+ * element is located at its index. The objects that are mapped to the same
+ * index by the indexer are treated as the same element, e.g., equivalent
+ * expressions of different statements, which are represented by the
+ * element at that index.
+ * Set operations between two {@link BitSetFact}s are performed on
+ * the underlying {@code long[]} words, and the other operations
+ * fall back to the ones of {@link SetFact}.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E> extends SetFact<E> {
+
+    private final Bits<E> bits;
+
+    /**
+     * Creates an empty fact.
+     *
+     * @param elements all elements that may appear in the fact, where
+     *                 the element at position i has index i
+     * @param indexer  maps each element to its index, and returns -1
+     *                 for the objects that are not in {@code elements}.
+     *                 Such objects are never contained in the fact,
+     *                 and adding them throws {@link IllegalArgumentException}.
+     */
+    public BitSetFact(List<E> elements, ToIntFunction<? super E> indexer) {
+        super(() -> new Bits<>(elements, indexer));
+        bits = (Bits<E>) set;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return bits.contains(e);
+    }
+
+    @Override
+    public boolean add(E e) {
+        return bits.add(e);
+    }
+
+    @Override
+    public boolean remove(E e) {
+        return bits.remove(e);
+    }
+
+    /**
+     * Adds all elements of the universe to this fact.
+     */
+    public void fill() {
+        long[] words = bits.words;
+        if (words.length > 0) {
+            Arrays.fill(words, -1L);
+            // clear the bits beyond the universe
+            words[words.length - 1] >>>= (words.length << 6) - bits.elements.size();
+        }
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            long[] words = bits.words;
+            long[] otherWords = that.bits.words;
+            long changed = 0;
+            for (int i = 0; i < words.length; ++i) {
+                long old = words[i];
+                long word = old | otherWords[i];
+                changed |= old ^ word;
+                words[i] = word;
+            }
+            return changed != 0;
+        }
+        return super.union(other);
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            long[] words = bits.words;
+            long[] otherWords = that.bits.words;
+            long changed = 0;
+            for (int i = 0; i < words.length; ++i) {
+                long old = words[i];
+                long word = old & otherWords[i];
+                changed |= old ^ word;
+                words[i] = word;
+            }
+            return changed != 0;
+        }
+        return super.intersect(other);
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            System.arraycopy(that.bits.words, 0,
+                    bits.words, 0, bits.words.length);
+        } else {
+            super.set(other);
+        }
+    }
+
+    /**
+     * Sets the content of this fact to {@code gen | (source & ~kill)},
+     * i.e., the result of a gen/kill transfer function.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean setGenKill(BitSetFact<E> source,
+                              BitSetFact<E> gen, BitSetFact<E> kill) {
+        long[] words = bits.words;
+        long[] sourceWords = source.bits.words;
+        long[] genWords = gen.bits.words;
+        long[] killWords = kill.bits.words;
+        long changed = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long word = genWords[i] | (sourceWords[i] & ~killWords[i]);
+            changed |= words[i] ^ word;
+            words[i] = word;
+        }
+        return changed != 0;
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        BitSetFact<E> copy = new BitSetFact<>(bits.elements, bits.indexer);
+        copy.set(this);
+        return copy;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(bits.words, 0L);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : bits.words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return bits.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof BitSetFact<?> that) {
+            return Arrays.equals(bits.words, that.bits.words);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with the hash code of other set facts
+        return super.hashCode();
+    }
+
+    /**
+     * Set view of a bit vector.
+     */
+    private static final class Bits<E> extends AbstractSet<E> {
+
+        private final List<E> elements;
+
+        private final ToIntFunction<? super E> indexer;
+
+        private final long[] words;
+
+        private Bits(List<E> elements, ToIntFunction<? super E> indexer) {
+            this.elements = elements;
+            this.indexer = indexer;
+            this.words = new long[(elements.size() + 63) >>> 6];
+        }
+
+        /**
+         * @return index of given object given by the indexer, or -1 if
+         * the object is not in the domain of this bit vector.
+         */
+        private int indexOf(Object o) {
+            if (o == null) {
+                return -1;
+            }
+            try {
+                @SuppressWarnings("unchecked")
+                int index = indexer.applyAsInt((E) o);
+                return 0 <= index && index < elements.size() ? index : -1;
+            } catch (ClassCastException e) {
+                // the indexer does not accept the type of the object
+                return -1;
+            }
+        }
+
+        private boolean get(int index) {
+            return 0 <= index && index < elements.size()
+                    && (words[index >>> 6] & (1L << index)) != 0;
+        }
+
+        private boolean set(int index) {
+            long old = words[index >>> 6];
+            long word = old | (1L << index);
+            words[index >>> 6] = word;
+            return old != word;
+        }
+
+        /**
+         * Clears the bit of given index. Out-of-domain indexes,
+         * i.e., -1, are ignored.
+         */
+        private boolean clear(int index) {
+            if (index < 0 || index >= elements.size()) {
+                return false;
+            }
+            long old = words[index >>> 6];
+            long word = old & ~(1L << index);
+            words[index >>> 6] = word;
+            return old != word;
+        }
+
+        /**
+         * @return index of the first set bit that is not less than
+         * {@code from}, or -1 if no such bit exists.
+         */
+        private int nextSetBit(int from) {
+            int i = from >>> 6;
+            if (i >= words.length) {
+                return -1;
+            }
+            long word = words[i] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    return (i << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if (++i == words.length) {
+                    return -1;
+                }
+                word = words[i];
+            }
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return get(indexOf(o));
+        }
+
+        @Override
+        public boolean add(E e) {
+            int index = indexOf(e);
+            if (index < 0) {
+                throw new IllegalArgumentException(
+                        e + " is not in the domain of this fact");
+            }
+            return set(index);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return clear(indexOf(o));
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int next = nextSetBit(0);
+
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public E next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = nextSetBit(next + 1);
+                    return elements.get(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    clear(last);
+                    last = -1;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (long word : words) {
+                size += Long.bitCount(word);
+            }
+            return size;
+        }
+    }
+}
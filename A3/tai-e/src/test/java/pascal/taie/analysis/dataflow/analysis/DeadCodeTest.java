@@ -25,13 +25,19 @@ package pascal.taie.analysis.dataflow.analysis;
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
 
+import java.util.List;
+
 public class DeadCodeTest {
 
     void testDCD(String inputClass) {
+        testDCD(inputClass, false);
+    }
+
+    void testDCD(String inputClass, boolean sparse) {
         Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
                 DeadCodeDetection.ID,
                 "-a", "livevar=strongly:false",
-                "-a", "constprop=edge-refine:false");
+                "-a", "constprop=edge-refine:false;sparse:" + sparse);
     }
 
     @Test
@@ -58,4 +64,14 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testSparseConstantPropagation() {
+        // sparse constant propagation detects the same dead code
+        for (String inputClass : List.of("ControlFlowUnreachable",
+                "UnreachableIfBranch", "UnreachableSwitchBranch",
+                "DeadAssignment", "Loops")) {
+            testDCD(inputClass, true);
+        }
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Compares the results of sparse constant propagation against
+ * the ones of the dense analysis.
+ */
+public class SparseCPTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
+    /**
+     * Runs constant propagation with given options on given input.
+     *
+     * @return the OUT fact of each statement, where each fact maps
+     * the variable names to their values.
+     */
+    private static Map<String, Map<String, Value>> run(String main, String opts) {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", ConstantPropagation.ID + "=edge-refine:false;" + opts,
+        });
+        Map<String, Map<String, Value>> facts = new TreeMap<>();
+        World.get().getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .forEach(m -> collectFacts(m, facts));
+        return facts;
+    }
+
+    private static void collectFacts(
+            JMethod method, Map<String, Map<String, Value>> facts) {
+        IR ir = method.getIR();
+        DataflowResult<Stmt, CPFact> result = ir.getResult(ConstantPropagation.ID);
+        for (Stmt stmt : ir) {
+            Map<String, Value> fact = new TreeMap<>();
+            CPFact outFact = result.getOutFact(stmt);
+            for (Var var : outFact.keySet()) {
+                Value value = outFact.get(var);
+                if (!value.isUndef()) {
+                    fact.put(var.getName(), value);
+                }
+            }
+            facts.put(method + "/" + stmt.getIndex() + ": " + stmt, fact);
+        }
+    }
+
+    /**
+     * Asserts that the sparse analysis gives the same results
+     * as the dense analysis.
+     */
+    private static void assertSame(String main) {
+        assertEquals(run(main, "sparse:false"), run(main, "sparse:true"));
+    }
+
+    /**
+     * Asserts that the sparse analysis is at least as precise as the dense
+     * analysis, i.e., for each variable at each statement, the value given
+     * by the sparse analysis is UNDEF (the statement or the definitions of
+     * the variable are not executable) or is the same as the dense value,
+     * unless the dense value is NAC.
+     *
+     * @return whether the sparse analysis is more precise.
+     */
+    private static boolean assertRefines(String main) {
+        Map<String, Map<String, Value>> dense = run(main, "sparse:false");
+        Map<String, Map<String, Value>> sparse = run(main, "sparse:true");
+        assertEquals(dense.keySet(), sparse.keySet());
+        boolean morePrecise = false;
+        for (String stmt : dense.keySet()) {
+            Map<String, Value> denseFact = dense.get(stmt);
+            Map<String, Value> sparseFact = sparse.get(stmt);
+            Set<String> vars = new HashSet<>(denseFact.keySet());
+            vars.addAll(sparseFact.keySet());
+            for (String var : vars) {
+                Value d = denseFact.getOrDefault(var, Value.getUndef());
+                Value s = sparseFact.getOrDefault(var, Value.getUndef());
+                if (!s.equals(d)) {
+                    assertTrue(stmt + ": " + var + " is " + s
+                                    + " in sparse result, but " + d
+                                    + " in dense result",
+                            s.isUndef() || d.isNAC());
+                    morePrecise = true;
+                }
+            }
+        }
+        return morePrecise;
+    }
+
+    @Test
+    public void testControlFlowUnreachable() {
+        assertSame("ControlFlowUnreachable");
+    }
+
+    @Test
+    public void testDeadAssignment() {
+        assertSame("DeadAssignment");
+    }
+
+    @Test
+    public void testUnreachableIfBranch() {
+        // z is 100 after the if statement, as the else branch is infeasible
+        assertTrue(assertRefines("UnreachableIfBranch"));
+    }
+
+    @Test
+    public void testUnreachableSwitchBranch() {
+        assertTrue(assertRefines("UnreachableSwitchBranch"));
+    }
+
+    @Test
+    public void testFallThroughSwitch() {
+        assertTrue(assertRefines("FallThroughSwitch"));
+    }
+
+    @Test
+    public void testLoops() {
+        assertTrue(assertRefines("Loops"));
+    }
+
+    @Test
+    public void testIncompatibleOptions() {
+        assertThrowsConfig("sparse:true;retain-facts:in");
+        assertThrowsConfig("sparse:true;solve-blocks:true");
+    }
+
+    private static void assertThrowsConfig(String opts) {
+        try {
+            run("DeadAssignment", opts);
+        } catch (RuntimeException e) {
+            for (Throwable t = e; t != null; t = t.getCause()) {
+                if (t instanceof ConfigException) {
+                    return;
+                }
+            }
+            throw e;
+        }
+        fail("Expected ConfigException for " + opts);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class BitSetFactTest {
+
+    /**
+     * Universe "e0", "e1", ..., whose size is not a multiple of 64.
+     */
+    private static final int SIZE = 130;
+
+    private static final List<String> ELEMENTS = makeElements();
+
+    private static List<String> makeElements() {
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < SIZE; ++i) {
+            elements.add("e" + i);
+        }
+        return elements;
+    }
+
+    /**
+     * Maps "e<i>" to i, and the other strings to -1.
+     */
+    private static int indexOf(String s) {
+        try {
+            int index = Integer.parseInt(s.substring(1));
+            return s.charAt(0) == 'e' && index < SIZE ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static BitSetFact<String> newFact(String... elements) {
+        BitSetFact<String> fact = new BitSetFact<>(ELEMENTS, BitSetFactTest::indexOf);
+        for (String e : elements) {
+            fact.add(e);
+        }
+        return fact;
+    }
+
+    @Test
+    public void testDomainEdges() {
+        BitSetFact<String> fact = newFact();
+        assertTrue(fact.isEmpty());
+        // the first and last elements of each word and of the universe
+        String[] edges = {"e0", "e63", "e64", "e127", "e128", "e129"};
+        for (String e : edges) {
+            assertTrue(fact.add(e));
+            assertFalse(fact.add(e));
+        }
+        assertEquals(edges.length, fact.size());
+        assertEquals(Set.of(edges), fact.stream().collect(Collectors.toSet()));
+        for (String e : edges) {
+            assertTrue(fact.contains(e));
+            assertTrue(fact.remove(e));
+            assertFalse(fact.remove(e));
+        }
+        assertTrue(fact.isEmpty());
+    }
+
+    @Test
+    public void testFillMasksTailWord() {
+        BitSetFact<String> fact = newFact();
+        fact.fill();
+        assertEquals(SIZE, fact.size());
+        assertEquals(newFact(ELEMENTS.toArray(new String[0])), fact);
+        // intersection with a full fact does not change anything
+        BitSetFact<String> full = newFact();
+        full.fill();
+        assertFalse(full.intersect(fact));
+        assertEquals(SIZE, full.size());
+    }
+
+    @Test
+    public void testFillEmptyDomain() {
+        BitSetFact<String> fact = new BitSetFact<>(List.of(), s -> -1);
+        fact.fill();
+        assertTrue(fact.isEmpty());
+        assertEquals(0, fact.size());
+    }
+
+    @Test
+    public void testOutOfDomainElements() {
+        BitSetFact<String> fact = newFact("e0", "e129");
+        assertFalse(fact.contains("x"));
+        assertFalse(fact.contains("e130"));
+        assertFalse(fact.remove("x"));
+        assertThrows(IllegalArgumentException.class, () -> fact.add("x"));
+        assertEquals(2, fact.size());
+    }
+
+    @Test
+    public void testElementsOfSameIndex() {
+        // "e05" and "e5" are both mapped to index 5 by the indexer,
+        // so they are the same element of the fact
+        BitSetFact<String> fact = newFact("e05");
+        assertTrue(fact.contains("e5"));
+        assertFalse(fact.add("e5"));
+        assertEquals(List.of("e5"), fact.stream().toList());
+        assertTrue(fact.remove("e005"));
+        assertFalse(fact.contains("e05"));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testForeignObjects() {
+        BitSetFact<String> fact = newFact("e1");
+        // intersecting a set fact with the bit-set fact queries the bit
+        // vector with the elements of that fact, which are not strings
+        // and cannot be passed to the indexer
+        SetFact<Object> other = new SetFact<>();
+        other.add(1);
+        other.add("e1");
+        assertTrue(other.intersect((SetFact) fact));
+        assertEquals(1, other.size());
+        assertTrue(other.contains("e1"));
+    }
+
+    @Test
+    public void testSetOperations() {
+        BitSetFact<String> a = newFact("e1", "e70");
+        BitSetFact<String> b = newFact("e70", "e128");
+        BitSetFact<String> union = a.copy();
+        assertTrue(union.union(b));
+        assertFalse(union.union(b));
+        assertEquals(newFact("e1", "e70", "e128"), union);
+        BitSetFact<String> intersection = a.copy();
+        assertTrue(intersection.intersect(b));
+        assertEquals(newFact("e70"), intersection);
+        // out = gen | (in & ~kill)
+        BitSetFact<String> out = newFact();
+        assertTrue(out.setGenKill(union, newFact("e2"), newFact("e1")));
+        assertEquals(newFact("e2", "e70", "e128"), out);
+        assertFalse(out.setGenKill(union, newFact("e2"), newFact("e1")));
+    }
+}
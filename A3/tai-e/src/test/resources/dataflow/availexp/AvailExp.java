@@ -0,0 +1,28 @@
+class AvailExp {
+
+    int selfUpdate(int x, int y) {
+        x = x + 1;
+        int a = x + y;
+        int b = x + 1;
+        return a;
+    }
+
+    int redefine(int a, int b) {
+        int c = a * b;
+        a = b;
+        int d = a * b;
+        int e = c + d;
+        return e;
+    }
+
+    int loop(int m, int n, int k) {
+        int a, b, i;
+        a = m + n;
+        b = a * n;
+        for (i = m - 1; i < k; i++) {
+            b = m + n;
+            a = a + i;
+        }
+        return b;
+    }
+}
@@ -0,0 +1,26 @@
+class ReachDef {
+
+    int redefine(int a, int b) {
+        int x = a;
+        int y = b;
+        x = a + b;
+        return x;
+    }
+
+    int branch(int a, int b) {
+        int x = a;
+        if (b > 0) {
+            x = b;
+        }
+        return x;
+    }
+
+    int loop(int m, int n) {
+        int s, i;
+        s = 0;
+        for (i = m - 1; i < n; i++) {
+            s = s + i;
+        }
+        return s;
+    }
+}
@@ -39,13 +39,26 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Implementation of intraprocedural constant propagation for int values.
+ * <p>
+ * When option {@code dense-fact} is enabled, the analysis represents
+ * the facts by {@link DenseCPFact}s, which store the lattice values in
+ * primitive arrays indexed by the variables.
+ */
 public class ConstantPropagation extends
         AbstractDataflowAnalysis<Stmt, CPFact> {
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether the facts are {@link DenseCPFact}s.
+     */
+    private final boolean denseFact;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        denseFact = getOptions().getBooleanOrDefault("dense-fact", false);
     }
 
     @Override
@@ -56,7 +69,7 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        CPFact result = new CPFact();
+        CPFact result = newInitialFact();
 
         // Here getParams gets the parameters in function definitions
         // params should be set to NAC because they are not decided until the function is called
@@ -72,12 +85,17 @@ public class ConstantPropagation extends
     @Override
     public CPFact newInitialFact() {
         // TODO - finish me
-        return new CPFact();
+        return denseFact ? new DenseCPFact() : new CPFact();
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
+        if (fact instanceof DenseCPFact denseSource
+                && target instanceof DenseCPFact denseTarget) {
+            denseTarget.meetFrom(denseSource);
+            return;
+        }
         for(Var key: fact.keySet()) {
             Value val1 = fact.get(key);
             Value val2 = target.get(key);
@@ -113,16 +131,17 @@ public class ConstantPropagation extends
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
-        CPFact result = in.copy();
+        // OUT[s] = IN[s] except the variable defined by s, so we copy
+        // IN[s] to OUT[s] directly instead of creating a temporary fact
         if(stmt instanceof DefinitionStmt<?,?> definitionStmt) { // only takes definitions into account
             LValue lVal = definitionStmt.getLValue();
             RValue rVal = definitionStmt.getRValue();
             if(lVal instanceof Var lVar && canHoldInt(lVar)) {
                 // evaluate is called here, evaluate rVal according to IN[s]
-                result.update(lVar, evaluate(rVal, in));
+                return out.copyFrom(in, lVar, evaluate(rVal, in));
             }
         }
-        return out.copyFrom(result);
+        return out.copyFrom(in);
     }
 
     /**
@@ -0,0 +1,84 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+
+import java.util.Map;
+
+/**
+ * Template interface for IDE (interprocedural distributive environment)
+ * problems, which are solved by {@link IDESolver}.
+ * <p>
+ * The flow functions map a fact at the source of an ICFG edge to
+ * the facts at its target, together with the edge functions which
+ * transform the values along the edges. The special zero fact holds
+ * at every reachable node, and it generates the facts whose values
+ * do not depend on any other fact.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ * @param <V>    type of values of the facts
+ */
+public interface IDEProblem<Node, D, V> {
+
+    /**
+     * @return the zero fact.
+     */
+    D zeroFact();
+
+    /**
+     * @return the initial values of the facts at the entry node of
+     * an entry method. The result should contain the zero fact.
+     */
+    Map<D, V> initialValues(Node entry);
+
+    /**
+     * @return the top value, i.e., the value of the facts that are not reached.
+     */
+    V topValue();
+
+    /**
+     * Meets two values.
+     */
+    V meetValue(V v1, V v2);
+
+    /**
+     * @return the identity edge function.
+     */
+    EdgeFunction<V> identity();
+
+    // ---------- flow functions for specific ICFG edges ----------
+    Map<D, EdgeFunction<V>> normalFlow(NormalEdge<Node> edge, D fact);
+
+    Map<D, EdgeFunction<V>> callFlow(CallEdge<Node> edge, D fact);
+
+    Map<D, EdgeFunction<V>> returnFlow(ReturnEdge<Node> edge, D fact);
+
+    Map<D, EdgeFunction<V>> callToReturnFlow(CallToReturnEdge<Node> edge, D fact);
+    // ----------------------------------------------------------------
+}
@@ -0,0 +1,277 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tabulation solver for {@link IDEProblem}s (Sagiv, Reps and Horwitz, 1996).
+ * <p>
+ * Phase I computes the jump functions, i.e., the composed edge functions
+ * from the facts at the entry of each method to the facts at each node.
+ * The jump functions of the exit node of a method are the summary of
+ * the method, which are computed once for each entry fact and reused at
+ * all call sites that pass the fact to the method, instead of analyzing
+ * the method again for each call site.
+ * Phase II propagates the values of the facts to the entries of the
+ * methods through the call sites, and then applies the jump functions
+ * to obtain the values at every node.
+ */
+class IDESolver<Method, Node, D, V> {
+
+    private final IDEProblem<Node, D, V> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final D zero;
+
+    /**
+     * Jump functions: node -> target fact -> entry fact -> function.
+     */
+    private final Map<Node, Map<D, Map<D, EdgeFunction<V>>>> jumpFns = Maps.newMap();
+
+    /**
+     * The calls to each method entry: entry node -> entry fact ->
+     * call site -> call-site fact -> call edge function.
+     */
+    private final Map<Node, Map<D, Map<Node, Map<D, EdgeFunction<V>>>>> incoming = Maps.newMap();
+
+    /**
+     * The reached call sites in each method.
+     */
+    private final Map<Method, Set<Node>> callSites = Maps.newMap();
+
+    private final Deque<PathEdge<Node, D>> workList = new ArrayDeque<>();
+
+    /**
+     * Values of the facts at each node, including the zero fact.
+     */
+    private final Map<Node, Map<D, V>> values = Maps.newMap();
+
+    IDESolver(IDEProblem<Node, D, V> problem, ICFG<Method, Node> icfg) {
+        this.problem = problem;
+        this.icfg = icfg;
+        this.zero = problem.zeroFact();
+    }
+
+    void solve() {
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            problem.initialValues(entry).keySet().forEach(d ->
+                    propagate(d, entry, d, problem.identity()));
+        });
+        while (!workList.isEmpty()) {
+            PathEdge<Node, D> edge = workList.poll();
+            Node node = edge.node();
+            EdgeFunction<V> f = jumpFns.get(node).get(edge.fact()).get(edge.source());
+            if (icfg.isCallSite(node)) {
+                processCall(edge.source(), node, edge.fact(), f);
+            } else if (isExit(node)) {
+                processExit(edge.source(), node, edge.fact(), f);
+            } else {
+                processNormal(edge.source(), node, edge.fact(), f);
+            }
+        }
+        computeValues();
+    }
+
+    /**
+     * @return the values of the facts at given node, including the zero
+     * fact, which is absent if the node is not reachable.
+     */
+    Map<D, V> getValuesAt(Node node) {
+        return values.getOrDefault(node, Collections.emptyMap());
+    }
+
+    private boolean isExit(Node node) {
+        return node.equals(icfg.getExitOf(icfg.getContainingMethodOf(node)));
+    }
+
+    private void propagate(D source, Node node, D fact, EdgeFunction<V> f) {
+        Map<D, EdgeFunction<V>> fns = jumpFns
+                .computeIfAbsent(node, __ -> Maps.newHybridMap())
+                .computeIfAbsent(fact, __ -> Maps.newHybridMap());
+        EdgeFunction<V> old = fns.get(source);
+        EdgeFunction<V> fn = old == null ? f : old.meetWith(f);
+        if (!fn.equals(old)) {
+            fns.put(source, fn);
+            workList.add(new PathEdge<>(source, node, fact));
+        }
+    }
+
+    private void processNormal(D d1, Node node, D d2, EdgeFunction<V> f) {
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+            if (edge instanceof NormalEdge<Node> normalEdge) {
+                problem.normalFlow(normalEdge, d2).forEach((d3, g) ->
+                        propagate(d1, edge.getTarget(), d3, f.composeWith(g)));
+            }
+        }
+    }
+
+    private void processCall(D d1, Node callSite, D d2, EdgeFunction<V> f) {
+        callSites.computeIfAbsent(icfg.getContainingMethodOf(callSite),
+                __ -> Sets.newHybridSet()).add(callSite);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge<Node> callEdge) {
+                Node start = callEdge.getTarget();
+                Node exit = icfg.getExitOf(icfg.getContainingMethodOf(start));
+                problem.callFlow(callEdge, d2).forEach((d3, fc) -> {
+                    incoming.computeIfAbsent(start, __ -> Maps.newHybridMap())
+                            .computeIfAbsent(d3, __ -> Maps.newHybridMap())
+                            .computeIfAbsent(callSite, __ -> Maps.newHybridMap())
+                            .put(d2, fc);
+                    propagate(d3, start, d3, problem.identity());
+                    // applies the existing summaries of the callee
+                    Map<D, Map<D, EdgeFunction<V>>> summaries = jumpFns.get(exit);
+                    if (summaries != null) {
+                        summaries.forEach((d4, fns) -> {
+                            EdgeFunction<V> fs = fns.get(d3);
+                            if (fs != null) {
+                                applyReturn(exit, callSite, d4,
+                                        d1, f.composeWith(fc).composeWith(fs));
+                            }
+                        });
+                    }
+                });
+            } else if (edge instanceof CallToReturnEdge<Node> c2rEdge) {
+                problem.callToReturnFlow(c2rEdge, d2).forEach((d3, g) ->
+                        propagate(d1, edge.getTarget(), d3, f.composeWith(g)));
+            }
+        }
+    }
+
+    private void processExit(D d1, Node exit, D d2, EdgeFunction<V> f) {
+        Node start = icfg.getEntryOf(icfg.getContainingMethodOf(exit));
+        Map<D, Map<Node, Map<D, EdgeFunction<V>>>> calls = incoming.get(start);
+        if (calls == null || !calls.containsKey(d1)) {
+            return;
+        }
+        calls.get(d1).forEach((callSite, callFns) ->
+                callFns.forEach((d4, fc) -> {
+                    Map<D, EdgeFunction<V>> callerFns = jumpFns.get(callSite).get(d4);
+                    callerFns.forEach((d3, fCaller) ->
+                            applyReturn(exit, callSite, d2, d3,
+                                    fCaller.composeWith(fc).composeWith(f)));
+                }));
+    }
+
+    /**
+     * Propagates fact {@code d} at {@code exit}, whose value is given by
+     * function {@code f} of the fact {@code source} at the entry of
+     * the caller, to the return sites of {@code callSite}.
+     */
+    private void applyReturn(Node exit, Node callSite, D d,
+                             D source, EdgeFunction<V> f) {
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(exit)) {
+            if (edge instanceof ReturnEdge<Node> returnEdge
+                    && returnEdge.getCallSite().equals(callSite)) {
+                problem.returnFlow(returnEdge, d).forEach((d5, fr) ->
+                        propagate(source, edge.getTarget(), d5, f.composeWith(fr)));
+            }
+        }
+    }
+
+    private void computeValues() {
+        // computes the values of the facts at the method entries
+        Map<Node, Map<D, V>> startValues = Maps.newMap();
+        Deque<PathEdge<Node, D>> starts = new ArrayDeque<>();
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            problem.initialValues(entry).forEach((d, v) ->
+                    setStartValue(startValues, starts, entry, d, v));
+        });
+        while (!starts.isEmpty()) {
+            PathEdge<Node, D> start = starts.poll();
+            V v = startValues.get(start.node()).get(start.fact());
+            Method method = icfg.getContainingMethodOf(start.node());
+            for (Node callSite : callSites.getOrDefault(method, Set.of())) {
+                jumpFns.get(callSite).forEach((d2, fns) -> {
+                    EdgeFunction<V> f = fns.get(start.fact());
+                    if (f == null) {
+                        return;
+                    }
+                    V vc = f.computeTarget(v);
+                    for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+                        if (edge instanceof CallEdge<Node> callEdge) {
+                            problem.callFlow(callEdge, d2).forEach((d3, fc) ->
+                                    setStartValue(startValues, starts,
+                                            edge.getTarget(), d3, fc.computeTarget(vc)));
+                        }
+                    }
+                });
+            }
+        }
+        // applies the jump functions to the values at the method entries
+        jumpFns.forEach((node, fnsByFact) -> {
+            Node start = icfg.getEntryOf(icfg.getContainingMethodOf(node));
+            Map<D, V> entryValues = startValues.getOrDefault(start, Map.of());
+            Map<D, V> nodeValues = Maps.newHybridMap();
+            fnsByFact.forEach((d, fns) -> {
+                V value = problem.topValue();
+                for (Map.Entry<D, EdgeFunction<V>> e : fns.entrySet()) {
+                    V entryValue = entryValues.get(e.getKey());
+                    if (entryValue != null) {
+                        value = problem.meetValue(value,
+                                e.getValue().computeTarget(entryValue));
+                    }
+                }
+                nodeValues.put(d, value);
+            });
+            values.put(node, nodeValues);
+        });
+    }
+
+    private void setStartValue(Map<Node, Map<D, V>> startValues,
+                               Deque<PathEdge<Node, D>> starts,
+                               Node start, D d, V v) {
+        Map<D, V> entryValues = startValues.computeIfAbsent(
+                start, __ -> Maps.newHybridMap());
+        V old = entryValues.get(d);
+        V value = old == null ? v : problem.meetValue(old, v);
+        if (!value.equals(old)) {
+            entryValues.put(d, value);
+            starts.add(new PathEdge<>(d, start, d));
+        }
+    }
+
+    /**
+     * Path edge from fact {@code source} at the entry of the method
+     * to fact {@code fact} at {@code node}.
+     */
+    private record PathEdge<Node, D>(D source, Node node, D fact) {
+    }
+}
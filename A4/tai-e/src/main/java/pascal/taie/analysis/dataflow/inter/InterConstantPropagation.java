@@ -22,14 +22,20 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.units.qual.C;
+import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
@@ -56,11 +62,67 @@ public class InterConstantPropagation extends
 
     public static final String ID = "inter-constprop";
 
+    private static final Logger logger = LogManager.getLogger(InterConstantPropagation.class);
+
     private final ConstantPropagation cp;
 
+    /**
+     * Whether dead code is detected on the results, given by option
+     * {@code dead-code}. The detected dead code is stored in {@link World}
+     * with key {@link InterDeadCodeDetection#ID}.
+     */
+    private final boolean deadCode;
+
+    /**
+     * Whether the ICFG in {@link World} is replaced by the view without
+     * the dead code, given by option {@code prune-icfg}, so that the
+     * subsequent analyses skip the dead code.
+     */
+    private final boolean pruneICFG;
+
+    /**
+     * Whether the analysis is solved as linear constant propagation
+     * by the IDE solver, given by option {@code ide}, which reuses
+     * the summaries of the methods across their call sites.
+     * The results may be less precise than the ones of the data-flow
+     * solver, see {@link LinearConstantPropagation} for the differences.
+     *
+     * @see LinearConstantPropagation
+     */
+    private final boolean ide;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
-        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "dense-fact", getOptions().getBooleanOrDefault("dense-fact", false)));
+        deadCode = getOptions().getBooleanOrDefault("dead-code", false);
+        pruneICFG = getOptions().getBooleanOrDefault("prune-icfg", false);
+        ide = getOptions().getBooleanOrDefault("ide", false);
+    }
+
+    @Override
+    public Object analyze() {
+        Object result;
+        if (ide) {
+            icfg = World.get().getResult(ICFGBuilder.ID);
+            result = new LinearConstantPropagation(icfg, cp).solve();
+        } else {
+            result = super.analyze();
+        }
+        if (deadCode || pruneICFG) {
+            @SuppressWarnings("unchecked")
+            DataflowResult<Stmt, CPFact> constants = (DataflowResult<Stmt, CPFact>) result;
+            InterDeadCodeDetection detection = InterDeadCodeDetection.detect(
+                    icfg, constants, World.get().getResult(CallGraphBuilder.ID));
+            logger.info("#unreachable methods: {}, #dead statements: {}",
+                    detection.getUnreachableMethods().size(),
+                    detection.getNumberOfDeadStmts());
+            World.get().storeResult(InterDeadCodeDetection.ID, detection);
+            if (pruneICFG) {
+                World.get().storeResult(ICFGBuilder.ID, detection.prune());
+            }
+        }
+        return result;
     }
 
     @Override
@@ -109,21 +171,25 @@ public class InterConstantPropagation extends
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
-        return out.copy();
+        // identity function, the fact is shared as it is only read
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
-        CPFact result = out.copy();
         Stmt src = edge.getSource();
         if(src instanceof Invoke invoke) {
             Var var = invoke.getResult();
-            if(null != var && ConstantPropagation.canHoldInt(var)) {
+            // copy the fact only when the result variable needs to be killed
+            if(null != var && ConstantPropagation.canHoldInt(var)
+                    && !out.get(var).isUndef()) {
+                CPFact result = out.copy();
                 result.remove(var);
+                return result;
             }
         }
-        return result;
+        return out;
     }
 
     @Override
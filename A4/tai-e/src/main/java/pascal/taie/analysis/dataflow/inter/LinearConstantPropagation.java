@@ -0,0 +1,286 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Linear constant propagation for int values as an {@link IDEProblem}.
+ * <p>
+ * The facts are the int variables and the values are {@link Value}s.
+ * The assignments of constants, copies and the additions, subtractions
+ * and multiplications of a variable and a constant are modeled by
+ * {@link LinearFunction}s, and the other int assignments are NAC.
+ * The summaries of the callees are reused by all their call sites.
+ * <p>
+ * This is not a port of {@link InterConstantPropagation}: its results
+ * are sound, but they diverge from (and are mostly less precise than)
+ * the ones of the data-flow solver in the following cases.
+ * <ul>
+ *     <li>An edge function has only one argument, thus a binary expression
+ *     whose operands are both non-constant variables, e.g.,
+ *     {@code x = y * z}, is NAC even if both {@code y} and {@code z}
+ *     are constants at that point.</li>
+ *     <li>The other operators, e.g., {@code x = y / 2}, are NAC
+ *     even if their operands are constants.</li>
+ *     <li>The meet of two different edge functions is {@code λx.NAC},
+ *     e.g., if {@code x = 1} on one path and {@code x = y} on the other,
+ *     {@code x} is NAC after the join even if {@code y} is 1.</li>
+ *     <li>{@code x = y * 0} is 0 even if {@code y} is NAC.</li>
+ * </ul>
+ * For the methods without such expressions and joins, e.g., the test
+ * cases {@code Fibonacci} and {@code Reference} of constant propagation,
+ * the results are the same as the ones of the data-flow solver.
+ */
+class LinearConstantPropagation implements IDEProblem<Stmt, Var, Value> {
+
+    /**
+     * The zero fact.
+     */
+    private static final Var ZERO = new Var(null, "<zero>", PrimitiveType.INT, -1);
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final ConstantPropagation cp;
+
+    LinearConstantPropagation(ICFG<JMethod, Stmt> icfg, ConstantPropagation cp) {
+        this.icfg = icfg;
+        this.cp = cp;
+    }
+
+    /**
+     * Solves the problem on the ICFG, and converts the results to
+     * the facts of {@link InterConstantPropagation}.
+     */
+    DataflowResult<Stmt, CPFact> solve() {
+        IDESolver<JMethod, Stmt, Var, Value> solver = new IDESolver<>(this, icfg);
+        solver.solve();
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        for (Stmt stmt : icfg) {
+            Map<Var, Value> values = solver.getValuesAt(stmt);
+            CPFact in = cp.newInitialFact();
+            values.forEach((var, value) -> {
+                if (var != ZERO) {
+                    in.update(var, value);
+                }
+            });
+            CPFact out = in.copy();
+            Var def = getIntDef(stmt);
+            if (values.containsKey(ZERO) && def != null && !icfg.isCallSite(stmt)) {
+                Value value = Value.getUndef();
+                for (Map.Entry<Var, LinearFunction> e :
+                        gen((DefinitionStmt<?, ?>) stmt, def).entrySet()) {
+                    Value source = e.getKey() == ZERO ? Value.getNAC() : in.get(e.getKey());
+                    value = cp.meetValue(value, e.getValue().computeTarget(source));
+                }
+                out.update(def, value);
+            }
+            result.setInFact(stmt, in);
+            result.setOutFact(stmt, out);
+        }
+        return result;
+    }
+
+    @Override
+    public Var zeroFact() {
+        return ZERO;
+    }
+
+    @Override
+    public Map<Var, Value> initialValues(Stmt entry) {
+        Map<Var, Value> values = Maps.newHybridMap();
+        values.put(ZERO, Value.getNAC());
+        for (Var param : icfg.getContainingMethodOf(entry).getIR().getParams()) {
+            if (ConstantPropagation.canHoldInt(param)) {
+                values.put(param, Value.getNAC());
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public Value topValue() {
+        return Value.getUndef();
+    }
+
+    @Override
+    public Value meetValue(Value v1, Value v2) {
+        return cp.meetValue(v1, v2);
+    }
+
+    @Override
+    public EdgeFunction<Value> identity() {
+        return LinearFunction.IDENTITY;
+    }
+
+    @Override
+    public Map<Var, EdgeFunction<Value>> normalFlow(NormalEdge<Stmt> edge, Var fact) {
+        Stmt stmt = edge.getSource();
+        Var def = getIntDef(stmt);
+        if (def == null) {
+            return Map.of(fact, LinearFunction.IDENTITY);
+        }
+        Map<Var, EdgeFunction<Value>> result = Maps.newHybridMap();
+        if (fact != def) {
+            result.put(fact, LinearFunction.IDENTITY);
+        }
+        LinearFunction f = gen((DefinitionStmt<?, ?>) stmt, def).get(fact);
+        if (f != null) {
+            result.put(def, f);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Var, EdgeFunction<Value>> callFlow(CallEdge<Stmt> edge, Var fact) {
+        if (fact == ZERO) {
+            return Map.of(ZERO, LinearFunction.IDENTITY);
+        }
+        Map<Var, EdgeFunction<Value>> result = Maps.newHybridMap();
+        List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
+        List<Var> params = edge.getCallee().getIR().getParams();
+        for (int i = 0; i < args.size(); ++i) {
+            if (args.get(i) == fact && ConstantPropagation.canHoldInt(params.get(i))) {
+                result.put(params.get(i), LinearFunction.IDENTITY);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Var, EdgeFunction<Value>> returnFlow(ReturnEdge<Stmt> edge, Var fact) {
+        if (fact == ZERO) {
+            return Map.of(ZERO, LinearFunction.IDENTITY);
+        }
+        Var result = ((Invoke) edge.getCallSite()).getResult();
+        if (result != null && ConstantPropagation.canHoldInt(result)
+                && edge.getReturnVars().contains(fact)) {
+            return Map.of(result, LinearFunction.IDENTITY);
+        }
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Map<Var, EdgeFunction<Value>> callToReturnFlow(
+            CallToReturnEdge<Stmt> edge, Var fact) {
+        // kills the result variable, which is defined by the return edges
+        if (fact == ((Invoke) edge.getSource()).getResult()) {
+            return Collections.emptyMap();
+        }
+        return Map.of(fact, LinearFunction.IDENTITY);
+    }
+
+    /**
+     * @return the int variable defined by given statement, or null if
+     * the statement does not define any int variable.
+     */
+    private static @Nullable Var getIntDef(Stmt stmt) {
+        if (stmt instanceof DefinitionStmt<?, ?> defStmt
+                && defStmt.getLValue() instanceof Var var
+                && ConstantPropagation.canHoldInt(var)) {
+            return var;
+        }
+        return null;
+    }
+
+    /**
+     * @return the facts from which the value of {@code def} is computed
+     * at given statement, and the corresponding edge functions.
+     */
+    private static Map<Var, LinearFunction> gen(DefinitionStmt<?, ?> stmt, Var def) {
+        RValue rValue = stmt.getRValue();
+        if (rValue instanceof IntLiteral literal) {
+            return Map.of(ZERO, LinearFunction.constant(literal.getValue()));
+        }
+        if (rValue instanceof Var var) {
+            Integer c = getIntConst(var);
+            return c != null ? Map.of(ZERO, LinearFunction.constant(c))
+                    : Map.of(var, LinearFunction.IDENTITY);
+        }
+        if (rValue instanceof BinaryExp binaryExp) {
+            Var op1 = binaryExp.getOperand1();
+            Var op2 = binaryExp.getOperand2();
+            Integer c1 = getIntConst(op1);
+            Integer c2 = getIntConst(op2);
+            if (c1 != null && c2 != null) {
+                // folds the constant operands
+                CPFact consts = new CPFact();
+                consts.update(op1, Value.makeConstant(c1));
+                consts.update(op2, Value.makeConstant(c2));
+                Value value = ConstantPropagation.evaluate(binaryExp, consts);
+                if (value.isConstant()) {
+                    return Map.of(ZERO, LinearFunction.constant(value.getConstant()));
+                } else if (value.isUndef()) {
+                    return Collections.emptyMap();
+                }
+            } else if (binaryExp instanceof ArithmeticExp arithmeticExp
+                    && (c1 != null || c2 != null)) {
+                LinearFunction f = switch (arithmeticExp.getOperator()) {
+                    case ADD -> LinearFunction.linear(1, c1 != null ? c1 : c2);
+                    case SUB -> c2 != null ? LinearFunction.linear(1, -c2)
+                            : LinearFunction.linear(-1, c1);
+                    case MUL -> LinearFunction.linear(c1 != null ? c1 : c2, 0);
+                    default -> null;
+                };
+                if (f != null) {
+                    return Map.of(c1 != null ? op2 : op1, f);
+                }
+            }
+        }
+        return Map.of(ZERO, LinearFunction.ALL_BOTTOM);
+    }
+
+    /**
+     * @return the int constant held by given temporary variable,
+     * or null if the variable is not such a temporary variable.
+     */
+    private static @Nullable Integer getIntConst(Var var) {
+        return var.isTempConst() && var.getTempConstValue() instanceof IntLiteral literal
+                ? literal.getValue() : null;
+    }
+}
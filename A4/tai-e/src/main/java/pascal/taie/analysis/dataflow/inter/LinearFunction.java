@@ -0,0 +1,146 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+
+import java.util.Objects;
+
+/**
+ * Edge functions of linear constant propagation, i.e., {@code λx.a*x+b},
+ * together with the functions that map all values to UNDEF (all-top)
+ * and NAC (all-bottom). A linear function maps UNDEF and NAC to
+ * themselves, except that a constant function ({@code a == 0})
+ * ignores its argument.
+ */
+final class LinearFunction implements EdgeFunction<Value> {
+
+    private enum Kind {
+        TOP, BOTTOM, LINEAR
+    }
+
+    static final LinearFunction ALL_TOP = new LinearFunction(Kind.TOP, 0, 0);
+
+    static final LinearFunction ALL_BOTTOM = new LinearFunction(Kind.BOTTOM, 0, 0);
+
+    static final LinearFunction IDENTITY = new LinearFunction(Kind.LINEAR, 1, 0);
+
+    private final Kind kind;
+
+    private final int a;
+
+    private final int b;
+
+    private LinearFunction(Kind kind, int a, int b) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    /**
+     * @return the function {@code λx.a*x+b}.
+     */
+    static LinearFunction linear(int a, int b) {
+        return a == 1 && b == 0 ? IDENTITY : new LinearFunction(Kind.LINEAR, a, b);
+    }
+
+    /**
+     * @return the function {@code λx.c}.
+     */
+    static LinearFunction constant(int c) {
+        return new LinearFunction(Kind.LINEAR, 0, c);
+    }
+
+    private boolean isConstant() {
+        return kind == Kind.LINEAR && a == 0;
+    }
+
+    @Override
+    public Value computeTarget(Value source) {
+        return switch (kind) {
+            case TOP -> Value.getUndef();
+            case BOTTOM -> Value.getNAC();
+            case LINEAR -> {
+                if (a == 0) {
+                    yield Value.makeConstant(b);
+                } else if (source.isConstant()) {
+                    yield Value.makeConstant(a * source.getConstant() + b);
+                } else {
+                    yield source;
+                }
+            }
+        };
+    }
+
+    @Override
+    public LinearFunction composeWith(EdgeFunction<Value> second) {
+        LinearFunction g = (LinearFunction) second;
+        if (g.kind != Kind.LINEAR || g.a == 0) {
+            // g ignores its argument
+            return g;
+        }
+        return switch (kind) {
+            case TOP -> ALL_TOP;
+            case BOTTOM -> ALL_BOTTOM;
+            case LINEAR -> linear(g.a * a, g.a * b + g.b);
+        };
+    }
+
+    @Override
+    public LinearFunction meetWith(EdgeFunction<Value> other) {
+        LinearFunction g = (LinearFunction) other;
+        if (this.equals(g) || g.kind == Kind.TOP) {
+            return this;
+        } else if (kind == Kind.TOP) {
+            return g;
+        } else {
+            return ALL_BOTTOM;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LinearFunction that)) {
+            return false;
+        }
+        return kind == that.kind && a == that.a && b == that.b;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, a, b);
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case TOP -> "λx.UNDEF";
+            case BOTTOM -> "λx.NAC";
+            case LINEAR -> isConstant() ? "λx." + b : "λx." + a + "*x+" + b;
+        };
+    }
+}
@@ -63,6 +63,10 @@ public class CallGraphBuilder extends ProgramAnalysis {
         }
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
+        if (callGraph instanceof DefaultCallGraph defaultCallGraph) {
+            // the call graph will not be modified any more
+            callGraph = defaultCallGraph.freeze();
+        }
         ClassHierarchyImpl.setCheckCHA(false);
         takeAction(callGraph);
         return callGraph;
@@ -77,6 +77,18 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
         }
     }
 
+    /**
+     * Freezes this call graph into an immutable and compact representation.
+     * This call graph is not modified, so it can be further updated
+     * and frozen again.
+     *
+     * @return a {@link CompactCallGraph} that contains the same methods
+     * and call edges as this call graph.
+     */
+    public CompactCallGraph freeze() {
+        return new CompactCallGraph(this);
+    }
+
     @Override
     public JMethod getContainerOf(Invoke invoke) {
         return invoke.getContainer();
@@ -0,0 +1,269 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of (part of) an {@link ICFG} with compact adjacency.
+ * <p>
+ * The nodes are numbered densely in the order they are added, and so are
+ * the edges, which are added together with their sources and grouped by
+ * them. The sources, targets and kinds of the edges are stored in parallel
+ * primitive arrays, and the in-edges of each node are chained through
+ * an int array, hence the edges of a node can be traversed by indexes
+ * without allocating iterators or views.
+ * <p>
+ * The nodes can be added in batches, e.g., the nodes of a method when
+ * the method is reached by an analysis, so that the parts of the ICFG
+ * that are never reached are not snapshotted. Once added, the nodes and
+ * their out-edges do not change. The target of an edge whose target node
+ * has not been added is -1, and it is resolved when the node is added,
+ * which also adds the edge to the in-edges of the node. Thus, the out-edges
+ * of the added nodes are complete, provided that the out-edges of each node
+ * in the ICFG are complete when the node is added, and the in-edges
+ * of a node are the edges from the added nodes.
+ *
+ * @param <Node> type of ICFG nodes
+ */
+public class FrozenICFG<Node> {
+
+    // ---------- kinds of ICFG edges ----------
+    public static final byte NORMAL_EDGE = 0;
+
+    public static final byte CALL_TO_RETURN_EDGE = 1;
+
+    public static final byte CALL_EDGE = 2;
+
+    public static final byte RETURN_EDGE = 3;
+    // ----------------------------------------------------------------
+
+    private final ICFG<?, Node> icfg;
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    private final Map<Node, Integer> ids = Maps.newMap();
+
+    private final List<ICFGEdge<Node>> edges = new ArrayList<>();
+
+    private int[] sources = new int[16];
+
+    private int[] targets = new int[16];
+
+    private byte[] kinds = new byte[16];
+
+    /**
+     * The out-edges of node i are the edges from {@code outStarts[i]}
+     * (inclusive) to {@code outStarts[i + 1]} (exclusive).
+     */
+    private int[] outStarts = new int[16];
+
+    /**
+     * The in-edges of node i are {@code firstIns[i]},
+     * {@code nextIns[firstIns[i]]}, ..., until -1.
+     */
+    private int[] firstIns = new int[16];
+
+    private int[] nextIns = new int[16];
+
+    /**
+     * The edges whose targets have not been added.
+     */
+    private final MultiMap<Node, Integer> pendingEdges = Maps.newMultiMap();
+
+    /**
+     * Creates an empty snapshot of given ICFG, whose nodes are added
+     * by {@link #addNodes(Collection)}.
+     */
+    public FrozenICFG(ICFG<?, Node> icfg) {
+        this.icfg = icfg;
+    }
+
+    /**
+     * Freezes given ICFG entirely.
+     *
+     * @param order the nodes which are numbered first, in this order;
+     *              the other nodes are numbered after them
+     */
+    public static <Node> FrozenICFG<Node> freeze(ICFG<?, Node> icfg,
+                                                 List<Node> order) {
+        FrozenICFG<Node> graph = new FrozenICFG<>(icfg);
+        graph.addNodes(order);
+        graph.addNodes(icfg.getNodes());
+        return graph;
+    }
+
+    /**
+     * Adds given nodes, in the iteration order, and their out-edges.
+     * The nodes that have been added are skipped.
+     */
+    public void addNodes(Collection<Node> newNodes) {
+        int first = nodes.size();
+        for (Node node : newNodes) {
+            if (!ids.containsKey(node)) {
+                ids.put(node, nodes.size());
+                nodes.add(node);
+            }
+        }
+        int last = nodes.size();
+        if (outStarts.length < last + 1) {
+            int capacity = Math.max(outStarts.length * 2, last + 1);
+            outStarts = Arrays.copyOf(outStarts, capacity);
+            firstIns = Arrays.copyOf(firstIns, capacity);
+        }
+        Arrays.fill(firstIns, first, last, -1);
+        for (int i = first; i < last; ++i) {
+            Node node = nodes.get(i);
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                addEdge(i, edge);
+            }
+            outStarts[i + 1] = edges.size();
+            // resolves the edges to this node from the nodes added before
+            Set<Integer> pending = pendingEdges.get(node);
+            if (!pending.isEmpty()) {
+                for (int e : pending) {
+                    setTarget(e, i);
+                }
+                pendingEdges.removeAll(node);
+            }
+        }
+    }
+
+    private void addEdge(int source, ICFGEdge<Node> edge) {
+        int e = edges.size();
+        if (e == sources.length) {
+            int capacity = e * 2;
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            nextIns = Arrays.copyOf(nextIns, capacity);
+        }
+        edges.add(edge);
+        sources[e] = source;
+        kinds[e] = kindOf(edge);
+        Integer target = ids.get(edge.getTarget());
+        if (target != null) {
+            setTarget(e, target);
+        } else {
+            targets[e] = -1;
+            pendingEdges.put(edge.getTarget(), e);
+        }
+    }
+
+    private void setTarget(int edge, int target) {
+        targets[edge] = target;
+        nextIns[edge] = firstIns[target];
+        firstIns[target] = edge;
+    }
+
+    /**
+     * @return the kind of given edge, i.e., one of {@link #NORMAL_EDGE},
+     * {@link #CALL_TO_RETURN_EDGE}, {@link #CALL_EDGE} and {@link #RETURN_EDGE}.
+     */
+    public static byte kindOf(ICFGEdge<?> edge) {
+        if (edge instanceof NormalEdge) {
+            return NORMAL_EDGE;
+        } else if (edge instanceof CallToReturnEdge) {
+            return CALL_TO_RETURN_EDGE;
+        } else if (edge instanceof CallEdge) {
+            return CALL_EDGE;
+        } else {
+            return RETURN_EDGE;
+        }
+    }
+
+    /**
+     * @return the number of added nodes.
+     */
+    public int getNumberOfNodes() {
+        return nodes.size();
+    }
+
+    public Node getNode(int id) {
+        return nodes.get(id);
+    }
+
+    /**
+     * @return id of given node, or -1 if the node has not been added.
+     */
+    public int getId(Node node) {
+        return ids.getOrDefault(node, -1);
+    }
+
+    /**
+     * @return the first out-edge of given node.
+     */
+    public int getOutStart(int node) {
+        return outStarts[node];
+    }
+
+    /**
+     * @return the edge after the last out-edge of given node.
+     */
+    public int getOutEnd(int node) {
+        return outStarts[node + 1];
+    }
+
+    /**
+     * @return the first in-edge of given node, or -1 if it has no in-edges.
+     */
+    public int getFirstInEdge(int node) {
+        return firstIns[node];
+    }
+
+    /**
+     * @return the in-edge of the target of given edge after given edge,
+     * or -1 if given edge is the last one.
+     */
+    public int getNextInEdge(int edge) {
+        return nextIns[edge];
+    }
+
+    public ICFGEdge<Node> getEdge(int edge) {
+        return edges.get(edge);
+    }
+
+    public int getSource(int edge) {
+        return sources[edge];
+    }
+
+    /**
+     * @return the target of given edge, or -1 if the target has not been added.
+     */
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    public byte getKind(int edge) {
+        return kinds[edge];
+    }
+}
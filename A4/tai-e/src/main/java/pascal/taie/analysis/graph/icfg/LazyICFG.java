@@ -0,0 +1,255 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ICFG which materializes the edges of a method only when the method
+ * is first accessed, i.e., when its entry (exit) or the edges of
+ * its nodes are queried.
+ * <p>
+ * Materializing a method adds the out-edges of all its nodes, i.e.,
+ * its intra-procedural edges, the call edges of its call sites, and
+ * the return edges from its exit to the return sites of all its callers.
+ * Thus, the out-edges of a node are complete once its method is
+ * materialized, while the in-edges of a method entry (return site) only
+ * contain the call (return) edges from the materialized callers (callees).
+ * The nodes of this ICFG ({@link #getNodes()}) are the nodes of
+ * the materialized methods, and they grow as more methods are materialized,
+ * e.g., as {@code InterSolver} reaches more methods.
+ */
+public class LazyICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(LazyICFG.class);
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+
+    /**
+     * Maps the nodes of materialized methods to their methods.
+     */
+    private final Map<Stmt, JMethod> stmtToMethod = Maps.newMap();
+
+    /**
+     * CFGs of the methods whose nodes have been accessed, which are not
+     * necessarily materialized, e.g., the callees of materialized methods.
+     */
+    private final Map<JMethod, CFG<Stmt>> cfgs = Maps.newMap();
+
+    private final Set<JMethod> materialized = Sets.newSet();
+
+    private final Set<Stmt> nodes = Sets.newSet();
+
+    public LazyICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+    }
+
+    /**
+     * Materializes the method that contains given node, if the node is
+     * in a method which has been accessed but not materialized.
+     */
+    private void materialize(Stmt stmt) {
+        if (!nodes.contains(stmt)) {
+            JMethod method = stmtToMethod.get(stmt);
+            if (method != null) {
+                materialize(method);
+            }
+        }
+    }
+
+    /**
+     * Materializes given method, if it has not been materialized.
+     *
+     * @return the CFG of given method, or null if the CFG is absent.
+     */
+    private CFG<Stmt> materialize(JMethod method) {
+        CFG<Stmt> cfg = getCFGOf(method);
+        if (cfg == null || !materialized.add(method)) {
+            return cfg;
+        }
+        for (Stmt stmt : cfg) {
+            nodes.add(stmt);
+        }
+        for (Stmt stmt : cfg) {
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                addEdge(isCallSite(stmt) ?
+                        new CallToReturnEdge<>(edge) : new NormalEdge<>(edge));
+            }
+            if (isCallSite(stmt)) {
+                for (JMethod callee : getCalleesOf(stmt)) {
+                    CFG<Stmt> calleeCFG = getCFGOf(callee);
+                    if (calleeCFG != null) {
+                        addEdge(new CallEdge<>(stmt, calleeCFG.getEntry(), callee));
+                    }
+                }
+            }
+        }
+        addReturnEdges(method, cfg);
+        return cfg;
+    }
+
+    /**
+     * Adds the return edges from the exit of given method to the return
+     * sites of its call sites.
+     */
+    private void addReturnEdges(JMethod method, CFG<Stmt> cfg) {
+        Stmt exit = cfg.getExit();
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        for (Edge<Stmt> retEdge : cfg.getInEdgesOf(exit)) {
+            if (retEdge.getKind() == Edge.Kind.RETURN) {
+                Var retVar = ((Return) retEdge.getSource()).getValue();
+                if (retVar != null) {
+                    retVars.add(retVar);
+                }
+            }
+            if (retEdge.isExceptional()) {
+                exceptions.addAll(retEdge.getExceptions());
+            }
+        }
+        for (Stmt callSite : getCallersOf(method)) {
+            CFG<Stmt> callerCFG = getCFGOf(callGraph.getContainerOf(callSite));
+            if (callerCFG != null) {
+                for (Stmt retSite : callerCFG.getSuccsOf(callSite)) {
+                    addEdge(new ReturnEdge<>(exit, retSite, callSite,
+                            retVars, exceptions));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the CFG of given method, or null if the CFG is absent.
+     */
+    private CFG<Stmt> getCFGOf(JMethod method) {
+        CFG<Stmt> cfg = cfgs.get(method);
+        if (cfg == null && !cfgs.containsKey(method)) {
+            cfg = ICFGBuilder.getCFGOf(method);
+            if (cfg == null) {
+                logger.warn("CFG of {} is absent, try to fix this" +
+                        " by adding option -scope=reachable", method);
+            } else {
+                for (Stmt stmt : cfg) {
+                    stmtToMethod.put(stmt, method);
+                }
+            }
+            cfgs.put(method, cfg);
+        }
+        return cfg;
+    }
+
+    private void addEdge(ICFGEdge<Stmt> edge) {
+        outEdges.put(edge.getSource(), edge);
+        inEdges.put(edge.getTarget(), edge);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        materialize(stmt);
+        return inEdges.get(stmt);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        materialize(stmt);
+        return outEdges.get(stmt);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return materialize(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return materialize(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return materialize(getContainingMethodOf(callSite))
+                .getSuccsOf(callSite);
+    }
+
+    /**
+     * @return the method containing given node, which is available once
+     * the node is accessed, e.g., as the target of an edge.
+     */
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        return stmtToMethod.get(stmt);
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        return nodes.contains(stmt);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        return Collections.unmodifiableSet(nodes);
+    }
+}
@@ -23,16 +23,39 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.ResultProcessor;
 import pascal.taie.analysis.Tests;
 import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.analysis.dataflow.inter.InterDeadCodeDetection;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class InterCPTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
 
     void test(String inputClass) {
+        test(inputClass, "edge-refine:false;alias-aware:false");
+    }
+
+    void test(String inputClass, String opts) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha"
+                opts, "-a", "cg=algorithm:cha"
                 // , "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                             // to output ICFGs for the test cases
         );
@@ -57,4 +80,74 @@ public class InterCPTest {
     public void testMultiIntArgs() {
         test("MultiIntArgs");
     }
+
+    /**
+     * The ICFG built on demand gives the same results as the ICFG
+     * built by {@code icfg}.
+     */
+    @Test
+    public void testLazyICFG() {
+        test("Example", "edge-refine:false;alias-aware:false;lazy-icfg:true");
+        test("Fibonacci", "edge-refine:false;alias-aware:false;lazy-icfg:true");
+        test("MultiIntArgs", "edge-refine:false;alias-aware:false;lazy-icfg:true");
+    }
+
+    /**
+     * Linear constant propagation gives the same results as the data-flow
+     * solver for the test cases whose int values are only computed
+     * by linear expressions of one variable.
+     */
+    @Test
+    public void testIDE() {
+        test("Fibonacci", "edge-refine:false;alias-aware:false;ide:true");
+        test("Reference", "edge-refine:false;alias-aware:false;ide:true");
+    }
+
+    /**
+     * The else branch of DeadCode.branch() is dead under the constant
+     * argument, so DeadCode.unused() is only called from dead code.
+     * The dead code is dumped by {@link ResultProcessor}, and is pruned
+     * from the ICFG with option {@code prune-icfg}.
+     */
+    @Test
+    public void testDeadCode() throws IOException {
+        Path dump = Files.createTempFile("DeadCode", ".txt");
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", "DeadCode",
+                "-a", "cg=algorithm:cha",
+                "-a", InterConstantPropagation.ID + "=" +
+                "edge-refine:false;alias-aware:false;prune-icfg:true",
+                "-a", ResultProcessor.ID + "=analyses:[" +
+                InterDeadCodeDetection.ID + "];action:dump;file:" + dump});
+        InterDeadCodeDetection detection = World.get()
+                .getResult(InterDeadCodeDetection.ID);
+        JClass deadCode = World.get().getClassHierarchy().getClass("DeadCode");
+        JMethod branch = deadCode.getDeclaredMethod("branch");
+        JMethod unused = deadCode.getDeclaredMethod("unused");
+        assertEquals(List.of(unused), detection.getUnreachableMethods()
+                .stream()
+                .filter(m -> m.getDeclaringClass() == deadCode)
+                .toList());
+        assertTrue(detection.isReachable(branch.getIR().getStmt(0)));
+        Stmt callSite = detection.getDeadStmts(branch)
+                .stream()
+                .filter(s -> s instanceof Invoke)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(unused.getIR().getStmts().size(),
+                detection.getResult(unused).size());
+        // the pruned ICFG
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        assertTrue(icfg.hasNode(icfg.getEntryOf(branch)));
+        assertFalse(icfg.hasNode(callSite));
+        assertFalse(icfg.hasNode(icfg.getEntryOf(unused)));
+        assertTrue(icfg.getCallersOf(unused).isEmpty());
+        assertTrue(icfg.getOutEdgesOf(icfg.getExitOf(unused)).isEmpty());
+        assertTrue(icfg.getNodes().stream().noneMatch(
+                n -> icfg.getContainingMethodOf(n) == unused));
+        // the dumped dead code
+        String dumped = Files.readString(dump);
+        Files.delete(dump);
+        assertTrue(dumped.contains(
+                unused + " (" + InterDeadCodeDetection.ID + ")"));
+    }
 }
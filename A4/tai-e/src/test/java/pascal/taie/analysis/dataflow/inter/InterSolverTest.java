@@ -0,0 +1,303 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.MockICFG;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class InterSolverTest {
+
+    /**
+     * Collects the nodes on the paths to each node. The call edges pass
+     * nothing, so the facts in a callee only contain its own nodes (and
+     * the nodes of its callees), while the facts of a return site contain
+     * the nodes before the call site and the nodes of the callees.
+     */
+    private static class PathAnalysis
+            implements InterDataflowAnalysis<String, Set<String>> {
+
+        @Override
+        public boolean isForward() {
+            return true;
+        }
+
+        @Override
+        public Set<String> newBoundaryFact(String boundary) {
+            return new TreeSet<>();
+        }
+
+        @Override
+        public Set<String> newInitialFact() {
+            return new TreeSet<>();
+        }
+
+        @Override
+        public void meetInto(Set<String> fact, Set<String> target) {
+            target.addAll(fact);
+        }
+
+        @Override
+        public boolean transferNode(String node, Set<String> in, Set<String> out) {
+            return out.addAll(in) | out.add(node);
+        }
+
+        @Override
+        public Set<String> transferEdge(ICFGEdge<String> edge, Set<String> out) {
+            return edge instanceof CallEdge ? Set.of() : out;
+        }
+    }
+
+    private static DataflowResult<String, Set<String>> solve(
+            InterDataflowAnalysis<String, Set<String>> analysis,
+            ICFG<String, String> icfg) {
+        return new InterSolver<>(analysis, icfg).solve();
+    }
+
+    private static Set<String> set(String... elems) {
+        return new TreeSet<>(List.of(elems));
+    }
+
+    @Test
+    public void testCallAndReturn() {
+        MockICFG icfg = new MockICFG()
+                .method("main", "e", "x")
+                .node("main", "c1", "r1", "c2", "r2")
+                .method("foo", "fe", "fx")
+                .node("foo", "f1")
+                .normal("e", "c1")
+                .normal("r1", "c2")
+                .normal("r2", "x")
+                .normal("fe", "f1", "fx")
+                .call("c1", "r1", "foo")
+                .call("c2", "r2", "foo");
+        DataflowResult<String, Set<String>> result =
+                solve(new PathAnalysis(), icfg);
+        assertEquals(set("fe", "f1", "fx"), result.getOutFact("fx"));
+        assertEquals(set("e", "c1", "fe", "f1", "fx"), result.getInFact("r1"));
+        assertEquals(set("e", "c1", "r1", "c2", "r2", "fe", "f1", "fx", "x"),
+                result.getOutFact("x"));
+    }
+
+    @Test
+    public void testRecursion() {
+        MockICFG icfg = new MockICFG()
+                .method("main", "e", "x")
+                .node("main", "c", "r")
+                .method("foo", "fe", "fx")
+                .node("foo", "fc", "fr", "f1")
+                .normal("e", "c")
+                .normal("r", "x")
+                .normal("fe", "fc")
+                .normal("fr", "fx")
+                .normal("fe", "f1", "fx")
+                .call("c", "r", "foo")
+                .call("fc", "fr", "foo");
+        DataflowResult<String, Set<String>> result =
+                solve(new PathAnalysis(), icfg);
+        // the facts of the recursive return flow back to the return site
+        assertEquals(set("fe", "fc", "fr", "f1", "fx"), result.getInFact("fr"));
+        assertEquals(set("e", "c", "r", "fe", "fc", "fr", "f1", "fx", "x"),
+                result.getOutFact("x"));
+        assertEquals(result.getOutFact("x"), naiveSolve(new PathAnalysis(), icfg)
+                .getOutFact("x"));
+    }
+
+    @Test
+    public void testUnreachableMethod() {
+        MockICFG icfg = new MockICFG()
+                .method("main", "e", "x")
+                .method("dead", "de", "dx")
+                .normal("e", "x")
+                .normal("de", "dx");
+        DataflowResult<String, Set<String>> result =
+                solve(new PathAnalysis(), icfg);
+        assertEquals(set("e", "x"), result.getOutFact("x"));
+        assertEquals(set(), result.getOutFact("dx"));
+    }
+
+    /**
+     * The solver only traverses the methods it reaches, so that
+     * an ICFG that materializes methods on demand never materializes
+     * the unreachable methods.
+     */
+    @Test
+    public void testUnreachableMethodNotTraversed() {
+        Set<String> queried = new TreeSet<>();
+        MockICFG icfg = new MockICFG() {
+            @Override
+            public Set<ICFGEdge<String>> getOutEdgesOf(String node) {
+                queried.add(node);
+                return super.getOutEdgesOf(node);
+            }
+        };
+        icfg.method("main", "e", "x")
+                .node("main", "c", "r")
+                .method("foo", "fe", "fx")
+                .method("dead", "de", "dx")
+                .node("dead", "dc", "dr")
+                .method("bar", "be", "bx")
+                .normal("e", "c")
+                .normal("r", "x")
+                .normal("fe", "fx")
+                .normal("de", "dc")
+                .normal("dr", "dx")
+                .normal("be", "bx")
+                .call("c", "r", "foo")
+                .call("dc", "dr", "bar");
+        DataflowResult<String, Set<String>> result =
+                solve(new PathAnalysis(), icfg);
+        assertEquals(set("e", "c", "r", "x", "fe", "fx"), queried);
+        assertEquals(set("e", "c", "fe", "fx", "r", "x"), result.getOutFact("x"));
+        assertEquals(set(), result.getOutFact("dc"));
+        assertEquals(set(), result.getOutFact("bx"));
+    }
+
+    /**
+     * Compares the solver against a naive fixed-point computation
+     * on random ICFGs.
+     */
+    @Test
+    public void testRandomICFGs() {
+        Random random = new Random(1);
+        for (int i = 0; i < 300; ++i) {
+            MockICFG icfg = randomICFG(random);
+            PathAnalysis analysis = new PathAnalysis();
+            DataflowResult<String, Set<String>> expected = naiveSolve(analysis, icfg);
+            DataflowResult<String, Set<String>> result = solve(analysis, icfg);
+            for (String node : icfg) {
+                assertEquals("IN of " + node + " in ICFG #" + i,
+                        expected.getInFact(node), result.getInFact(node));
+                assertEquals("OUT of " + node + " in ICFG #" + i,
+                        expected.getOutFact(node), result.getOutFact(node));
+            }
+        }
+    }
+
+    private static MockICFG randomICFG(Random random) {
+        MockICFG icfg = new MockICFG();
+        int nMethods = 1 + random.nextInt(5);
+        List<List<String>> bodies = new ArrayList<>();
+        for (int m = 0; m < nMethods; ++m) {
+            String method = "m" + m;
+            icfg.method(method, method + "e", method + "x");
+            List<String> body = new ArrayList<>();
+            int nNodes = 1 + random.nextInt(8);
+            for (int n = 0; n < nNodes; ++n) {
+                body.add(method + "n" + n);
+            }
+            icfg.node(method, body.toArray(new String[0]));
+            bodies.add(body);
+        }
+        for (int m = 0; m < nMethods; ++m) {
+            String method = "m" + m;
+            List<String> body = bodies.get(m);
+            icfg.normal(icfg.getEntryOf(method), body.get(0));
+            for (int n = 0; n < body.size(); ++n) {
+                String node = body.get(n);
+                String next = n + 1 < body.size() ?
+                        body.get(n + 1) : icfg.getExitOf(method);
+                if (n + 1 < body.size() && random.nextInt(3) == 0) {
+                    icfg.call(node, next, "m" + random.nextInt(nMethods));
+                    if (random.nextBoolean()) {
+                        icfg.call(node, next, "m" + random.nextInt(nMethods));
+                    }
+                } else {
+                    icfg.normal(node, next);
+                    if (random.nextInt(3) == 0) { // back or forward jump
+                        icfg.normal(node, body.get(random.nextInt(body.size())));
+                    }
+                }
+            }
+        }
+        return icfg;
+    }
+
+    /**
+     * Solves the analysis by iterating over all nodes that are reachable
+     * from the entry methods until the facts do not change.
+     */
+    private static DataflowResult<String, Set<String>> naiveSolve(
+            PathAnalysis analysis, ICFG<String, String> icfg) {
+        Set<String> reachable = new TreeSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        icfg.entryMethods().map(icfg::getEntryOf).forEach(entry -> {
+            reachable.add(entry);
+            queue.add(entry);
+        });
+        while (!queue.isEmpty()) {
+            for (String succ : icfg.getSuccsOf(queue.poll())) {
+                if (reachable.add(succ)) {
+                    queue.add(succ);
+                }
+            }
+        }
+        Map<String, Set<String>> in = new HashMap<>();
+        Map<String, Set<String>> out = new HashMap<>();
+        icfg.forEach(node -> {
+            in.put(node, analysis.newInitialFact());
+            out.put(node, analysis.newInitialFact());
+        });
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (String node : reachable) {
+                Set<String> inFact = analysis.newInitialFact();
+                for (ICFGEdge<String> edge : icfg.getInEdgesOf(node)) {
+                    if (reachable.contains(edge.getSource())) {
+                        analysis.meetInto(analysis.transferEdge(edge,
+                                out.get(edge.getSource())), inFact);
+                    }
+                }
+                Set<String> outFact = analysis.newInitialFact();
+                analysis.transferNode(node, inFact, outFact);
+                if (!inFact.equals(in.get(node)) || !outFact.equals(out.get(node))) {
+                    in.put(node, inFact);
+                    out.put(node, outFact);
+                    changed = true;
+                }
+            }
+        }
+        DataflowResult<String, Set<String>> result = new DataflowResult<>();
+        icfg.forEach(node -> {
+            result.setInFact(node, in.get(node));
+            result.setOutFact(node, out.get(node));
+        });
+        return result;
+    }
+}
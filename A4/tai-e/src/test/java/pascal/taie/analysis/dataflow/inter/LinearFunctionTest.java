@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class LinearFunctionTest {
+
+    private static final Value UNDEF = Value.getUndef();
+
+    private static final Value NAC = Value.getNAC();
+
+    private static Value c(int i) {
+        return Value.makeConstant(i);
+    }
+
+    @Test
+    public void testComputeTarget() {
+        LinearFunction f = LinearFunction.linear(2, 3);
+        assertEquals(c(7), f.computeTarget(c(2)));
+        assertEquals(UNDEF, f.computeTarget(UNDEF));
+        assertEquals(NAC, f.computeTarget(NAC));
+        // constant functions ignore their arguments
+        assertEquals(c(5), LinearFunction.constant(5).computeTarget(NAC));
+        assertEquals(c(0), LinearFunction.linear(0, 0).computeTarget(NAC));
+        assertEquals(NAC, LinearFunction.ALL_BOTTOM.computeTarget(c(1)));
+        assertEquals(UNDEF, LinearFunction.ALL_TOP.computeTarget(c(1)));
+    }
+
+    @Test
+    public void testComposeWith() {
+        LinearFunction f = LinearFunction.linear(2, 3);
+        LinearFunction g = LinearFunction.linear(-1, 1);
+        // g(f(x)) = -(2x + 3) + 1
+        LinearFunction gf = f.composeWith(g);
+        assertEquals(LinearFunction.linear(-2, -2), gf);
+        assertEquals(g.computeTarget(f.computeTarget(c(4))), gf.computeTarget(c(4)));
+        assertSame(LinearFunction.IDENTITY,
+                LinearFunction.linear(1, 0).composeWith(LinearFunction.IDENTITY));
+        assertEquals(LinearFunction.constant(3),
+                LinearFunction.ALL_BOTTOM.composeWith(LinearFunction.constant(3)));
+        assertSame(LinearFunction.ALL_BOTTOM,
+                LinearFunction.ALL_BOTTOM.composeWith(g));
+    }
+
+    @Test
+    public void testMeetWith() {
+        LinearFunction f = LinearFunction.linear(2, 3);
+        assertSame(f, f.meetWith(LinearFunction.ALL_TOP));
+        assertSame(f, LinearFunction.ALL_TOP.meetWith(f));
+        assertEquals(f, f.meetWith(LinearFunction.linear(2, 3)));
+        // different functions meet to λx.NAC, even if they agree on
+        // the actual argument, e.g., identity and λx.1 for argument 1
+        assertSame(LinearFunction.ALL_BOTTOM,
+                LinearFunction.IDENTITY.meetWith(LinearFunction.constant(1)));
+    }
+}
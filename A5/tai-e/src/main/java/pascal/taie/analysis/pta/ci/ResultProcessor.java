@@ -77,6 +77,8 @@ class ResultProcessor {
         switch (action) {
             case "dump" -> dumpPointsToSet(result, file);
             case "compare" -> comparePointsToSet(result, file);
+            case "export" -> ResultExporter.export(result, file,
+                    options.getString("export-format"));
         }
     }
 
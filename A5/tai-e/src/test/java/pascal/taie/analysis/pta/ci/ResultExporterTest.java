@@ -0,0 +1,348 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Decodes a small export of {@link ResultExporter} in both formats,
+ * and checks that the string table, points-to sets and call edges are
+ * read back as they are written.
+ */
+public class ResultExporterTest {
+
+    private static final String MAIN = "<Main: void main(java.lang.String[])>";
+
+    private static final String FOO = "<Main: void foo()>";
+
+    /**
+     * Needs JSON escapes, including the one of a control character.
+     */
+    private static final String ESCAPED = "\"quoted\" \\ \n\t\001";
+
+    /**
+     * Size of a points-to set, so that some object ids take two bytes.
+     */
+    private static final int OBJECTS = 200;
+
+    @Test
+    public void testJsonl() throws IOException {
+        assertEquals(expected(), decodeJsonl(export("jsonl")));
+    }
+
+    @Test
+    public void testBinary() throws IOException {
+        assertEquals(expected(), decodeBinary(export("binary")));
+    }
+
+    private static Path export(String format) throws IOException {
+        Path file = Files.createTempFile("export", "." + format);
+        file.toFile().deleteOnExit();
+        try (ResultExporter exporter = ResultExporter.open(file, format)) {
+            int main = exporter.idOf(MAIN);
+            int a = exporter.idOf("NewObj{" + MAIN + "[0@L3] new A}");
+            int escaped = exporter.idOf(ESCAPED);
+            exporter.writeVarPointsTo(main, "a", new int[]{a, escaped}, 2);
+            // a string is written only once, and then referred to by its id
+            assertEquals(main, exporter.idOf(MAIN));
+            exporter.writeVarPointsTo(main, "b", new int[0], 0);
+            int[] objIds = new int[OBJECTS];
+            for (int i = 0; i < OBJECTS; ++i) {
+                objIds[i] = exporter.idOf("o" + i);
+            }
+            exporter.writePointsTo("<A: B f>", objIds, OBJECTS);
+            int kind = exporter.idOf("STATIC");
+            int foo = exporter.idOf(FOO);
+            exporter.writeCallEdge(kind, main, 5, -1, foo);
+            exporter.writeCallEdge(kind, main, 7, 300, foo);
+        }
+        return file;
+    }
+
+    private static List<String> expected() {
+        List<String> objects = new ArrayList<>();
+        for (int i = 0; i < OBJECTS; ++i) {
+            objects.add("o" + i);
+        }
+        return List.of(
+                varPointsTo(MAIN, "a",
+                        List.of("NewObj{" + MAIN + "[0@L3] new A}", ESCAPED)),
+                varPointsTo(MAIN, "b", List.of()),
+                pointsTo("<A: B f>", objects),
+                callEdge("STATIC", callSite(MAIN, 5, -1), FOO),
+                callEdge("STATIC", callSite(MAIN, 7, 300), FOO)
+        );
+    }
+
+    // ---------- canonical forms of the decoded records ----------
+    private static String varPointsTo(String method, String var,
+                                      List<String> objects) {
+        return "var-pts " + method + "/" + var + " -> " + objects;
+    }
+
+    private static String pointsTo(String pointer, List<String> objects) {
+        return "pts " + pointer + " -> " + objects;
+    }
+
+    private static String callSite(String method, int index, int line) {
+        return method + "[" + index + "@L" + line + "]";
+    }
+
+    private static String callEdge(String kind, String callSite, String callee) {
+        return "call " + kind + " " + callSite + " -> " + callee;
+    }
+
+    /**
+     * String table of a decoded export, which checks that the ids are
+     * assigned in order, and each id is defined before it is referred to.
+     */
+    private static class Strings {
+
+        private final List<String> values = new ArrayList<>();
+
+        private void define(int id, String value) {
+            assertEquals(values.size(), id);
+            values.add(value);
+        }
+
+        private String get(int id) {
+            assertTrue("undefined string id " + id, id < values.size());
+            return values.get(id);
+        }
+    }
+
+    // ---------- binary decoder ----------
+    private static List<String> decodeBinary(Path file) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        byte[] magic = new byte[4];
+        in.get(magic);
+        assertEquals("TAIE", new String(magic, StandardCharsets.US_ASCII));
+        assertEquals(2, in.get());
+        Strings strings = new Strings();
+        List<String> records = new ArrayList<>();
+        while (in.hasRemaining()) {
+            int length = readVarint(in);
+            int end = in.position() + length;
+            byte tag = in.get();
+            switch (tag) {
+                case 0 -> strings.define(readVarint(in), readString(in));
+                case 1 -> records.add(pointsTo(readString(in),
+                        readObjects(in, strings)));
+                case 2 -> records.add(callEdge(strings.get(readVarint(in)),
+                        readCallSite(in, strings), strings.get(readVarint(in))));
+                case 3 -> records.add(varPointsTo(strings.get(readVarint(in)),
+                        readString(in), readObjects(in, strings)));
+                default -> fail("unknown tag " + tag);
+            }
+            // each record is read exactly to its end
+            assertEquals(end, in.position());
+        }
+        return records;
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readVarint(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readObjects(ByteBuffer in, Strings strings) {
+        int size = readVarint(in);
+        List<String> objects = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            objects.add(strings.get(readVarint(in)));
+        }
+        return objects;
+    }
+
+    private static String readCallSite(ByteBuffer in, Strings strings) {
+        String method = strings.get(readVarint(in));
+        int index = readVarint(in);
+        int zigzag = readVarint(in);
+        return callSite(method, index, (zigzag >>> 1) ^ -(zigzag & 1));
+    }
+
+    // ---------- JSONL decoder ----------
+    @SuppressWarnings("unchecked")
+    private static List<String> decodeJsonl(Path file) throws IOException {
+        Strings strings = new Strings();
+        List<String> records = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            Map<String, Object> record = (Map<String, Object>) JsonParser.parse(line);
+            switch ((String) record.get("type")) {
+                case "string" -> strings.define((Integer) record.get("id"),
+                        (String) record.get("value"));
+                case "var-pts" -> records.add(varPointsTo(
+                        strings.get((Integer) record.get("method")),
+                        (String) record.get("var"),
+                        objects(record.get("objects"), strings)));
+                case "pts" -> records.add(pointsTo((String) record.get("pointer"),
+                        objects(record.get("objects"), strings)));
+                case "call" -> records.add(callEdge(
+                        strings.get((Integer) record.get("kind")),
+                        callSite(record.get("site"), strings),
+                        strings.get((Integer) record.get("callee"))));
+                default -> fail("unknown record " + line);
+            }
+        }
+        return records;
+    }
+
+    private static List<String> objects(Object ids, Strings strings) {
+        return ((List<?>) ids).stream()
+                .map(id -> strings.get((Integer) id))
+                .toList();
+    }
+
+    private static String callSite(Object site, Strings strings) {
+        Map<?, ?> map = (Map<?, ?>) site;
+        return callSite(strings.get((Integer) map.get("method")),
+                (Integer) map.get("index"), (Integer) map.get("line"));
+    }
+
+    /**
+     * Minimal parser of the JSON values of the exported records,
+     * i.e., objects, arrays, strings and integers.
+     */
+    private static class JsonParser {
+
+        private final String text;
+
+        private int pos;
+
+        private JsonParser(String text) {
+            this.text = text;
+        }
+
+        private static Object parse(String text) {
+            JsonParser parser = new JsonParser(text);
+            Object value = parser.parseValue();
+            assertEquals(text.length(), parser.pos);
+            return value;
+        }
+
+        private Object parseValue() {
+            char c = text.charAt(pos);
+            if (c == '{') {
+                Map<String, Object> object = new LinkedHashMap<>();
+                ++pos;
+                if (!skip('}')) {
+                    do {
+                        String key = parseString();
+                        expect(':');
+                        object.put(key, parseValue());
+                    } while (skip(','));
+                    expect('}');
+                }
+                return object;
+            } else if (c == '[') {
+                List<Object> array = new ArrayList<>();
+                ++pos;
+                if (!skip(']')) {
+                    do {
+                        array.add(parseValue());
+                    } while (skip(','));
+                    expect(']');
+                }
+                return array;
+            } else if (c == '"') {
+                return parseString();
+            } else {
+                int start = pos;
+                if (c == '-') {
+                    ++pos;
+                }
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    ++pos;
+                }
+                return Integer.parseInt(text.substring(start, pos));
+            }
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder builder = new StringBuilder();
+            while (true) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return builder.toString();
+                }
+                // the exported strings contain no raw control characters
+                assertTrue(c >= 0x20);
+                if (c == '\\') {
+                    char e = text.charAt(pos++);
+                    switch (e) {
+                        case 'n' -> builder.append('\n');
+                        case 'r' -> builder.append('\r');
+                        case 't' -> builder.append('\t');
+                        case 'u' -> {
+                            builder.append((char) Integer.parseInt(
+                                    text.substring(pos, pos + 4), 16));
+                            pos += 4;
+                        }
+                        default -> builder.append(e);
+                    }
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+
+        private boolean skip(char c) {
+            if (text.charAt(pos) == c) {
+                ++pos;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            assertEquals(c, text.charAt(pos++));
+        }
+    }
+}
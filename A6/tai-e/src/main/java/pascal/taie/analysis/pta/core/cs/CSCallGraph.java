@@ -64,8 +64,11 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
      */
     public boolean addReachableMethod(CSMethod csMethod) {
         if (reachableMethods.add(csMethod)) {
-            callSitesIn(csMethod).forEach(csCallSite ->
-                    csCallSite.setContainer(csMethod));
+            // call sites of reachable methods are computed only once
+            // and cached in callSitesIn
+            Set<CSCallSite> callSites = collectCallSites(csMethod);
+            callSitesIn.putAll(csMethod, callSites);
+            callSites.forEach(csCallSite -> csCallSite.setContainer(csMethod));
             return true;
         } else {
             return false;
@@ -105,6 +108,13 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     @Override
     public Set<CSCallSite> getCallSitesIn(CSMethod csMethod) {
+        if (reachableMethods.contains(csMethod)) {
+            return callSitesIn.get(csMethod);
+        }
+        return Collections.unmodifiableSet(collectCallSites(csMethod));
+    }
+
+    private Set<CSCallSite> collectCallSites(CSMethod csMethod) {
         JMethod method = csMethod.getMethod();
         Context context = csMethod.getContext();
         Set<CSCallSite> callSites = Sets.newHybridOrderedSet();
@@ -114,7 +124,7 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
                 callSites.add(csCallSite);
             }
         }
-        return Collections.unmodifiableSet(callSites);
+        return callSites;
     }
 
     @Override
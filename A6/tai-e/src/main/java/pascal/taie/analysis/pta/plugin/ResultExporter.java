@@ -0,0 +1,427 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Exports the points-to sets and call graph edges in machine-readable
+ * formats, given by option {@code export-format}:
+ * <ul>
+ *     <li>{@code jsonl} (default): one JSON object per record;</li>
+ *     <li>{@code binary}: a magic number {@code TAIE} and a version byte,
+ *     followed by length-prefixed records, where each record starts with
+ *     its tag, integers are encoded as unsigned LEB128 varints, except that
+ *     line numbers, which are -1 when unknown, are zigzag-encoded first,
+ *     and strings are encoded as their UTF-8 lengths and bytes.</li>
+ * </ul>
+ * The records are written incrementally through a buffered file channel.
+ * The methods, contexts, objects and call kinds are not written in place: instead,
+ * each of them is written once as a string record, which assigns an id
+ * to its string, and the following records refer to it by the id.
+ * The records are:
+ * <ul>
+ *     <li>string: id, value;</li>
+ *     <li>var-points-to: id of context, id of container method, name of
+ *     the variable, ids of the objects in its points-to set;</li>
+ *     <li>points-to: other pointer, ids of the objects in its points-to set;</li>
+ *     <li>call: id of call kind, call site, id of callee,</li>
+ * </ul>
+ * where a call site is given by the id of its container method,
+ * its index and its line number.
+ */
+abstract class ResultExporter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Ids of the objects whose strings have been written.
+     */
+    private final Map<Object, Integer> ids = Maps.newMap();
+
+    /**
+     * Exports the results to given file.
+     */
+    static void export(PointerAnalysisResult result, @Nullable String file,
+                       @Nullable String format) {
+        if (file == null) {
+            throw new ConfigException("Option file is required for action export");
+        }
+        try (ResultExporter exporter = open(Path.of(file), format)) {
+            exporter.exportPointers(result.getCSVars());
+            exporter.exportPointers(result.getStaticFields());
+            exporter.exportPointers(result.getInstanceFields());
+            exporter.exportPointers(result.getArrayIndexes());
+            Iterator<Edge<Invoke, JMethod>> edges = result.getCallGraph()
+                    .edges().iterator();
+            while (edges.hasNext()) {
+                exporter.exportCallEdge(edges.next());
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to export results to " + file, e);
+        }
+    }
+
+    static ResultExporter open(Path path, @Nullable String format)
+            throws IOException {
+        if (format != null && !format.equals("jsonl") && !format.equals("binary")) {
+            throw new ConfigException("Invalid export format: " + format
+                    + ", expected one of jsonl/binary");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        if ("binary".equals(format)) {
+            return new BinaryExporter(new BufferedOutputStream(
+                    Channels.newOutputStream(channel), BUFFER_SIZE));
+        } else {
+            return new JsonExporter(new BufferedWriter(
+                    Channels.newWriter(channel, StandardCharsets.UTF_8),
+                    BUFFER_SIZE));
+        }
+    }
+
+    private void exportPointers(Collection<? extends Pointer> pointers)
+            throws IOException {
+        int[] objIds = new int[16];
+        for (Pointer pointer : pointers) {
+            int size = 0;
+            for (CSObj obj : pointer.getPointsToSet()) {
+                if (size == objIds.length) {
+                    objIds = Arrays.copyOf(objIds, size * 2);
+                }
+                objIds[size++] = idOf(obj);
+            }
+            if (pointer instanceof CSVar csVar) {
+                Var var = csVar.getVar();
+                writeVarPointsTo(idOf(csVar.getContext()), idOf(var.getMethod()),
+                        var.getName(), objIds, size);
+            } else {
+                writePointsTo(pointer.toString(), objIds, size);
+            }
+        }
+    }
+
+    private void exportCallEdge(Edge<Invoke, JMethod> edge) throws IOException {
+        int kind = idOf(edge.getKind());
+        Invoke callSite = edge.getCallSite();
+        int caller = idOf(callSite.getContainer());
+        int callee = idOf(edge.getCallee());
+        writeCallEdge(kind, caller, callSite.getIndex(),
+                callSite.getLineNumber(), callee);
+    }
+
+
+    /**
+     * @return the id of given object, and writes its string if
+     * the object is met for the first time.
+     */
+    int idOf(Object o) throws IOException {
+        Integer id = ids.get(o);
+        if (id == null) {
+            id = ids.size();
+            ids.put(o, id);
+            writeString(id, o.toString());
+        }
+        return id;
+    }
+
+    // ---------- record writers of specific formats ----------
+    abstract void writeString(int id, String value) throws IOException;
+
+    abstract void writeVarPointsTo(int context, int method, String var,
+                                   int[] objIds, int size) throws IOException;
+
+    abstract void writePointsTo(String pointer, int[] objIds, int size) throws IOException;
+
+    abstract void writeCallEdge(int kind, int caller, int index, int line,
+                                int callee) throws IOException;
+
+    // --------------------------------------------------------
+
+    private static class JsonExporter extends ResultExporter {
+
+        private final Writer writer;
+
+        /**
+         * Reused to build the records.
+         */
+        private final StringBuilder buffer = new StringBuilder();
+
+        private JsonExporter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        void writeString(int id, String value) throws IOException {
+            buffer.setLength(0);
+            buffer.append("{\"type\":\"string\",\"id\":").append(id)
+                    .append(",\"value\":");
+            appendString(value);
+            buffer.append("}\n");
+            writer.append(buffer);
+        }
+
+        @Override
+        void writeVarPointsTo(int context, int method, String var,
+                              int[] objIds, int size) throws IOException {
+            buffer.setLength(0);
+            buffer.append("{\"type\":\"var-pts\",\"context\":").append(context)
+                    .append(",\"method\":").append(method)
+                    .append(",\"var\":");
+            appendString(var);
+            appendObjects(objIds, size);
+            writer.append(buffer);
+        }
+
+        @Override
+        void writePointsTo(String pointer, int[] objIds, int size) throws IOException {
+            buffer.setLength(0);
+            buffer.append("{\"type\":\"pts\",\"pointer\":");
+            appendString(pointer);
+            appendObjects(objIds, size);
+            writer.append(buffer);
+        }
+
+        private void appendObjects(int[] objIds, int size) {
+            buffer.append(",\"objects\":[");
+            for (int i = 0; i < size; ++i) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                buffer.append(objIds[i]);
+            }
+            buffer.append("]}\n");
+        }
+
+        @Override
+        void writeCallEdge(int kind, int caller, int index, int line,
+                           int callee) throws IOException {
+            buffer.setLength(0);
+            buffer.append("{\"type\":\"call\",\"kind\":").append(kind)
+                    .append(",\"site\":");
+            appendCallSite(caller, index, line);
+            buffer.append(",\"callee\":").append(callee).append("}\n");
+            writer.append(buffer);
+        }
+
+        private void appendCallSite(int method, int index, int line) {
+            buffer.append("{\"method\":").append(method)
+                    .append(",\"index\":").append(index)
+                    .append(",\"line\":").append(line).append('}');
+        }
+
+        private void appendString(String s) {
+            buffer.append('"');
+            for (int i = 0; i < s.length(); ++i) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> buffer.append("\\\"");
+                    case '\\' -> buffer.append("\\\\");
+                    case '\n' -> buffer.append("\\n");
+                    case '\r' -> buffer.append("\\r");
+                    case '\t' -> buffer.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            buffer.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            buffer.append(c);
+                        }
+                    }
+                }
+            }
+            buffer.append('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static class BinaryExporter extends ResultExporter {
+
+        private static final byte[] MAGIC = {'T', 'A', 'I', 'E'};
+
+        private static final byte VERSION = 2;
+
+        private static final byte STRING = 0;
+
+        private static final byte POINTS_TO = 1;
+
+        private static final byte CALL_EDGE = 2;
+
+        private static final byte VAR_POINTS_TO = 3;
+
+        private final OutputStream out;
+
+        /**
+         * Reused to build the records, which are prefixed by their lengths.
+         */
+        private byte[] record = new byte[256];
+
+        private int size;
+
+        private final byte[] prefix = new byte[5];
+
+        private BinaryExporter(OutputStream out) throws IOException {
+            this.out = out;
+            out.write(MAGIC);
+            out.write(VERSION);
+        }
+
+        @Override
+        void writeString(int id, String value) throws IOException {
+            start(STRING);
+            putVarint(id);
+            putString(value);
+            flush();
+        }
+
+        @Override
+        void writeVarPointsTo(int context, int method, String var,
+                              int[] objIds, int size) throws IOException {
+            start(VAR_POINTS_TO);
+            putVarint(context);
+            putVarint(method);
+            putString(var);
+            putObjects(objIds, size);
+            flush();
+        }
+
+        @Override
+        void writePointsTo(String pointer, int[] objIds, int size) throws IOException {
+            start(POINTS_TO);
+            putString(pointer);
+            putObjects(objIds, size);
+            flush();
+        }
+
+        private void putObjects(int[] objIds, int size) {
+            putVarint(size);
+            for (int i = 0; i < size; ++i) {
+                putVarint(objIds[i]);
+            }
+        }
+
+        @Override
+        void writeCallEdge(int kind, int caller, int index, int line,
+                           int callee) throws IOException {
+            start(CALL_EDGE);
+            putVarint(kind);
+            putCallSite(caller, index, line);
+            putVarint(callee);
+            flush();
+        }
+
+        private void putCallSite(int method, int index, int line) {
+            putVarint(method);
+            putVarint(index);
+            // zigzag-encodes the line number, so that unknown line (-1)
+            // takes one byte instead of five
+            putVarint((line << 1) ^ (line >> 31));
+        }
+
+        private void start(byte tag) {
+            size = 0;
+            put(tag);
+        }
+
+        private void put(byte b) {
+            if (size == record.length) {
+                record = Arrays.copyOf(record, size * 2);
+            }
+            record[size++] = b;
+        }
+
+        private void putVarint(int value) {
+            if (size + 5 > record.length) {
+                record = Arrays.copyOf(record, record.length * 2);
+            }
+            size = encodeVarint(value, record, size);
+        }
+
+        /**
+         * Encodes given value to {@code dst} from {@code offset},
+         * which takes at most 5 bytes.
+         *
+         * @return the offset after the encoded value.
+         */
+        private static int encodeVarint(int value, byte[] dst, int offset) {
+            while ((value & ~0x7F) != 0) {
+                dst[offset++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            dst[offset++] = (byte) value;
+            return offset;
+        }
+
+        private void putString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putVarint(bytes.length);
+            for (byte b : bytes) {
+                put(b);
+            }
+        }
+
+        /**
+         * Writes the length and the content of current record.
+         */
+        private void flush() throws IOException {
+            out.write(prefix, 0, encodeVarint(size, prefix, 0));
+            out.write(record, 0, size);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -7,10 +7,20 @@ repositories {
     mavenCentral()
 }
 
+// microbenchmarks of the analyses, run by task jmh
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations["jmhImplementation"].extendsFrom(configurations.implementation.get())
+
 dependencies {
     implementation(files("lib/tai-e-assignment.jar"))
     implementation(files("../../lib/dependencies.jar"))
     testImplementation("junit:junit:4.13")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 application {
@@ -19,12 +29,30 @@ application {
 
 tasks.compileJava { options.encoding = "UTF-8" }
 tasks.compileTestJava { options.encoding = "UTF-8" }
+tasks.named<JavaCompile>("compileJmhJava") { options.encoding = "UTF-8" }
 
 tasks.test {
     useJUnit()
     maxHeapSize = "4G"
 }
 
+// usage: gradle jmh [-Pjmh.include=<regex of benchmarks>]
+// the results are written to build/reports/jmh/results.json
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks."
+    mainClass.set("org.openjdk.jmh.Main")
+    classpath = jmh.runtimeClasspath
+    // the benchmarks read their inputs from src/test/resources
+    workingDir = projectDir
+    // this JVM only launches the benchmarks, which run in forked JVMs
+    // whose heap is set by @Fork(jvmArgsAppend = ...) of each benchmark
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    doFirst { results.get().asFile.parentFile.mkdirs() }
+    args(listOfNotNull(project.findProperty("jmh.include")?.toString()))
+    args("-rf", "json", "-rff", results.get().asFile.absolutePath)
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
@@ -0,0 +1,97 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Static utility methods for benchmarks.
+ * The inputs of the benchmarks are the test cases under
+ * {@code src/test/resources}, thus the benchmarks should be run
+ * in the project directory, e.g., by {@code gradle jmh}.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Where the main class of the benchmark input is located.
+     */
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
+
+    /**
+     * The main class of the benchmark input.
+     */
+    private static final String MAIN = "ObjSens";
+
+    /**
+     * Options of the pointer analysis on the benchmark input.
+     */
+    private static final String PTA_OPTIONS = "cs:2-obj";
+
+    private static boolean initialized;
+
+    /**
+     * Builds the world for the benchmark input, and runs the pointer
+     * analysis on it. This is done only once in each JVM (fork).
+     */
+    public static synchronized void initWorld() {
+        if (!initialized) {
+            List<String> args = new ArrayList<>();
+            args.add("-pp");
+            Collections.addAll(args, "-cp", CLASS_PATH);
+            Collections.addAll(args, "-m", MAIN);
+            Collections.addAll(args, "-a", CSPTA.ID + "=" + PTA_OPTIONS);
+            Main.main(args.toArray(new String[0]));
+            initialized = true;
+        }
+    }
+
+    /**
+     * @return the result of the pointer analysis on the benchmark input.
+     */
+    public static PointerAnalysisResult getPTAResult() {
+        initWorld();
+        return World.get().getResult(CSPTA.ID);
+    }
+
+    /**
+     * @return the IRs of the methods that are reachable in the benchmark
+     * input (including the library methods).
+     */
+    public static List<IR> getReachableIRs() {
+        return getPTAResult().getCallGraph()
+                .reachableMethods()
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .toList();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.Benchmarks;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ConstantPropagation#transferNode(Stmt, CPFact, CPFact)},
+ * {@link ConstantPropagation#meetInto(CPFact, CPFact)} and
+ * {@link CPFact#copy()} on the statements of the methods that are
+ * reachable in the benchmark input.
+ * <p>
+ * The IN facts of the statements are recorded by transferring the facts
+ * along the statements of each method in order, which does not need
+ * the CFGs and gives realistic facts for the benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ConstantPropagationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean denseFact;
+
+    private ConstantPropagation cp;
+
+    private final List<Stmt> stmts = new ArrayList<>();
+
+    /**
+     * IN facts of {@link #stmts}.
+     */
+    private final List<CPFact> inFacts = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "", "", List.of(), new AnalysisOptions(
+                Map.of("dense-fact", denseFact))));
+        for (IR ir : Benchmarks.getReachableIRs()) {
+            CPFact in = cp.newInitialFact();
+            for (Stmt stmt : ir) {
+                stmts.add(stmt);
+                inFacts.add(in);
+                CPFact out = cp.newInitialFact();
+                cp.transferNode(stmt, in, out);
+                in = out;
+            }
+        }
+    }
+
+    @Benchmark
+    public void transferNode(Blackhole bh) {
+        for (int i = 0; i < stmts.size(); ++i) {
+            CPFact out = cp.newInitialFact();
+            bh.consume(cp.transferNode(stmts.get(i), inFacts.get(i), out));
+        }
+    }
+
+    /**
+     * Meets the IN facts of adjacent statements, as done at the joins.
+     */
+    @Benchmark
+    public void meetInto(Blackhole bh) {
+        for (int i = 1; i < inFacts.size(); ++i) {
+            CPFact target = inFacts.get(i - 1).copy();
+            cp.meetInto(inFacts.get(i), target);
+            bh.consume(target);
+        }
+    }
+
+    @Benchmark
+    public void copy(Blackhole bh) {
+        for (CPFact fact : inFacts) {
+            bh.consume(fact.copy());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.Benchmarks;
+import pascal.taie.analysis.pta.core.heap.Obj;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ListContext#make(Object[])} with the abstract objects
+ * of the benchmark input as context elements, as done by the object
+ * sensitive context selectors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ListContextBenchmark {
+
+    private Obj[] objs;
+
+    @Setup
+    public void setup() {
+        List<Obj> list = List.copyOf(Benchmarks.getPTAResult().getObjects());
+        objs = list.toArray(new Obj[0]);
+    }
+
+    @Benchmark
+    public void make1(Blackhole bh) {
+        for (Obj obj : objs) {
+            bh.consume(ListContext.make(obj));
+        }
+    }
+
+    @Benchmark
+    public void make2(Blackhole bh) {
+        for (int i = 1; i < objs.length; ++i) {
+            bh.consume(ListContext.make(objs[i - 1], objs[i]));
+        }
+    }
+
+    /**
+     * Compares the contexts, as done when they are used as keys of maps.
+     */
+    @Benchmark
+    public void makeAndEquals(Blackhole bh) {
+        for (int i = 1; i < objs.length; ++i) {
+            Context c1 = ListContext.make(objs[i - 1], objs[i]);
+            Context c2 = ListContext.make(objs[i - 1], objs[i]);
+            bh.consume(c1.hashCode() == c2.hashCode() && c1.equals(c2));
+        }
+    }
+}
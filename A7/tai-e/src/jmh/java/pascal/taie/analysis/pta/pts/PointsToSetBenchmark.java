@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.Benchmarks;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link PointsToSet#addAll(PointsToSet)} by merging
+ * the points-to sets of all pointers found by the pointer analysis.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PointsToSetBenchmark {
+
+    private List<PointsToSet> sets;
+
+    @Setup
+    public void setup() {
+        sets = Benchmarks.getPTAResult()
+                .getCSVars()
+                .stream()
+                .map(Pointer::getPointsToSet)
+                .filter(pts -> !pts.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Copies each points-to set to an empty set.
+     */
+    @Benchmark
+    public void addAllToEmpty(Blackhole bh) {
+        for (PointsToSet pts : sets) {
+            PointsToSet target = PointsToSetFactory.make();
+            bh.consume(target.addAll(pts));
+        }
+    }
+
+    /**
+     * Merges all points-to sets into one set.
+     */
+    @Benchmark
+    public PointsToSet addAllMerged() {
+        PointsToSet target = PointsToSetFactory.make();
+        for (PointsToSet pts : sets) {
+            target.addAll(pts);
+        }
+        return target;
+    }
+}
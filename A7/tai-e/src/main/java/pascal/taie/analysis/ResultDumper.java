@@ -0,0 +1,205 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import pascal.taie.config.ConfigException;
+
+import javax.annotation.Nullable;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Buffered writer for the results dumped by {@link ResultProcessor}.
+ * The results are written section by section, and each section holds
+ * the result lines of an analysis for a method. The format is given by
+ * option {@code format}:
+ * <ul>
+ *     <li>{@code text} (default): a header line, the result lines and
+ *     a blank line, which can be read back by {@link ResultProcessor};</li>
+ *     <li>{@code jsonl}: one JSON object per line, i.e.,
+ *     {@code {"method":...,"analysis":...,"results":[...]}}.</li>
+ * </ul>
+ */
+class ResultDumper implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer writer;
+
+    private final Format format;
+
+    /**
+     * Whether the underlying output is closed by {@link #close()},
+     * which is false for {@code System.out}.
+     */
+    private final boolean closeOutput;
+
+    /**
+     * Reused to build the headers and JSON strings.
+     */
+    private final StringBuilder buffer = new StringBuilder();
+
+    private ResultDumper(Writer writer, Format format, boolean closeOutput) {
+        this.writer = writer;
+        this.format = format;
+        this.closeOutput = closeOutput;
+    }
+
+    /**
+     * @param file   the output file, or null to write to {@code System.out}
+     * @param format name of the output format, or null for {@code text}
+     */
+    static ResultDumper open(@Nullable String file, @Nullable String format) {
+        Format f = Format.of(format);
+        if (file == null) {
+            return new ResultDumper(new BufferedWriter(
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                    BUFFER_SIZE), f, false);
+        }
+        try {
+            FileChannel channel = FileChannel.open(Path.of(file),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            return new ResultDumper(new BufferedWriter(
+                    Channels.newWriter(channel, StandardCharsets.UTF_8),
+                    BUFFER_SIZE), f, true);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open output file", e);
+        }
+    }
+
+    /**
+     * Writes the result lines of analysis {@code id} for given method.
+     *
+     * @param method signature of the method
+     */
+    void write(String method, String id, List<String> lines) {
+        try {
+            switch (format) {
+                case TEXT -> writeText(method, id, lines);
+                case JSONL -> writeJson(method, id, lines);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write results", e);
+        }
+    }
+
+    private void writeText(String method, String id, List<String> lines)
+            throws IOException {
+        buffer.setLength(0);
+        buffer.append("-------------------- ").append(method)
+                .append(" (").append(id).append(") --------------------\n");
+        writer.append(buffer);
+        for (String line : lines) {
+            writer.write(line);
+            writer.write('\n');
+        }
+        writer.write('\n');
+    }
+
+    private void writeJson(String method, String id, List<String> lines)
+            throws IOException {
+        buffer.setLength(0);
+        buffer.append("{\"method\":");
+        appendJsonString(method);
+        buffer.append(",\"analysis\":");
+        appendJsonString(id);
+        buffer.append(",\"results\":[");
+        writer.append(buffer);
+        for (int i = 0; i < lines.size(); ++i) {
+            buffer.setLength(0);
+            if (i > 0) {
+                buffer.append(',');
+            }
+            appendJsonString(lines.get(i));
+            writer.append(buffer);
+        }
+        writer.write("]}\n");
+    }
+
+    private void appendJsonString(String s) {
+        buffer.append('"');
+        for (int i = 0; i < s.length(); ++i) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> buffer.append("\\\"");
+                case '\\' -> buffer.append("\\\\");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                case '\t' -> buffer.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        buffer.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        buffer.append(c);
+                    }
+                }
+            }
+        }
+        buffer.append('"');
+    }
+
+    /**
+     * Flushes the buffered results, and closes the output file if any.
+     */
+    @Override
+    public void close() {
+        try {
+            if (closeOutput) {
+                writer.close();
+            } else {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close output", e);
+        }
+    }
+
+    private enum Format {
+
+        TEXT, JSONL;
+
+        private static Format of(@Nullable String name) {
+            if (name == null) {
+                return TEXT;
+            }
+            return switch (name) {
+                case "text" -> TEXT;
+                case "jsonl" -> JSONL;
+                default -> throw new ConfigException(
+                        "Invalid result format: " + name
+                                + ", expected one of text/jsonl");
+            };
+        }
+    }
+}
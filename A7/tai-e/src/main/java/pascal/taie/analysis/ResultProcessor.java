@@ -33,16 +33,9 @@ import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
-import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.MultiMap;
-import pascal.taie.util.collection.Pair;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.PrintStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -70,15 +63,22 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private final String action;
 
-    private PrintStream out;
+    private ResultDumper dumper;
 
-    private MultiMap<Pair<String, String>, String> inputs;
+    private ExpectedResults inputs;
 
     private Set<String> mismatches;
 
+    /**
+     * Whether the mismatches are logged, given by option
+     * {@code log-mismatches}.
+     */
+    private final boolean logMismatches;
+
     public ResultProcessor(AnalysisConfig config) {
         super(config);
         action = getOptions().getString("action");
+        logMismatches = getOptions().getBoolean("log-mismatches");
     }
 
     @Override
@@ -103,109 +103,87 @@ public class ResultProcessor extends ProgramAnalysis {
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
         }
-        if (getOptions().getBoolean("log-mismatches")) {
-            mismatches.forEach(logger::info);
+        if (dumper != null) {
+            dumper.close();
+            dumper = null;
         }
+        inputs = null;
         return mismatches;
     }
 
     private void setOutput() {
-        String output = getOptions().getString("file");
-        if (output != null) {
-            try {
-                out = new PrintStream(output);
-            } catch (FileNotFoundException e) {
-                throw new RuntimeException("Failed to open output file", e);
-            }
-        } else {
-            out = System.out;
-        }
+        dumper = ResultDumper.open(getOptions().getString("file"),
+                getOptions().getString("format"));
     }
 
     private void readInputs() {
-        String input = getOptions().getString("file");
-        Path path = Path.of(input);
-        try {
-            inputs = Maps.newMultiMap();
-            BufferedReader reader = Files.newBufferedReader(path);
-            String line;
-            Pair<String, String> currentKey = null;
-            while ((line = reader.readLine()) != null) {
-                Pair<String, String> key = extractKey(line);
-                if (key != null) {
-                    currentKey = key;
-                } else if (!line.isBlank()) {
-                    inputs.put(currentKey, line);
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read input file", e);
-        }
-    }
-
-    private static Pair<String, String> extractKey(String line) {
-        if (line.startsWith("----------") && line.endsWith("----------")) {
-            int ms = line.indexOf('<'); // method start
-            int me = line.indexOf("> "); // method end
-            String method = line.substring(ms, me + 1);
-            int as = line.lastIndexOf('('); // analysis start
-            int ae = line.lastIndexOf(')'); // analysis end
-            String analysis = line.substring(as + 1, ae);
-            return new Pair<>(method, analysis);
-        } else {
-            return null;
-        }
+        inputs = ExpectedResults.map(Path.of(getOptions().getString("file")));
     }
 
     private void processInterResults(List<String> analyses) {
-        Comparator<JMethod> comp = (m1, m2) -> {
-            if (m1.getDeclaringClass().equals(m2.getDeclaringClass())) {
-                return m1.getIR().getStmt(0).getLineNumber() -
-                        m2.getIR().getStmt(0).getLineNumber();
-            } else {
-                return m1.getDeclaringClass().toString()
-                        .compareTo(m2.getDeclaringClass().toString());
-            }
-        };
         CallGraph<?, JMethod> cg = World.get().getResult(CallGraphBuilder.ID);
-        Stream<JMethod> methods;
+        List<JMethod> methods;
         if (cg.getNumberOfMethods() == 0) {
             // Before the call graph construction has been implemented,
             // there are no methods in the call graph. In this case,
             // we compare the results for all application methods.
-            methods = World.get()
+            methods = sortMethods(World.get()
                     .getClassHierarchy()
                     .applicationClasses()
                     .map(JClass::getDeclaredMethods)
                     .flatMap(Collection::stream)
-                    .filter(m -> !m.isAbstract() && !m.isNative())
-                    .sorted(comp);
+                    .filter(m -> !m.isAbstract() && !m.isNative()), true);
         } else {
-            methods = cg.reachableMethods()
-                    .filter(m -> m.getDeclaringClass().isApplication())
-                    .sorted(comp);
+            methods = sortMethods(cg.reachableMethods()
+                    .filter(m -> m.getDeclaringClass().isApplication()), true);
         }
-        processResults(methods, analyses, (m, id) -> World.get().getResult(id));
+        processResults(methods, analyses, (m, id) -> {
+            Object result = World.get().getResult(id);
+            return result instanceof MethodResult<?> methodResult
+                    ? methodResult.getResult(m)
+                    : result;
+        });
     }
 
     private void processIntraResults(List<String> analyses) {
-        Stream<JMethod> methods = World.get()
+        List<JMethod> methods = sortMethods(World.get()
                 .getClassHierarchy()
                 .applicationClasses()
                 .map(JClass::getDeclaredMethods)
                 .flatMap(Collection::stream)
-                .filter(m -> !m.isAbstract() && !m.isNative())
-                .sorted(Comparator.comparing(m ->
-                        m.getIR().getStmt(0).getLineNumber()));
+                .filter(m -> !m.isAbstract() && !m.isNative()), false);
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
-    private void processResults(Stream<JMethod> methods, List<String> analyses,
+    /**
+     * Sorts the methods by the line numbers of their first statements,
+     * and by their declaring classes first if {@code byClass} is true.
+     * The sort keys are computed only once for each method.
+     */
+    private static List<JMethod> sortMethods(Stream<JMethod> methods, boolean byClass) {
+        record Key(JMethod method, String className, int line) {
+        }
+        return methods.map(m -> new Key(m,
+                        byClass ? m.getDeclaringClass().toString() : "",
+                        m.getIR().getStmt(0).getLineNumber()))
+                .sorted(Comparator.comparing(Key::className)
+                        .thenComparingInt(Key::line))
+                .map(Key::method)
+                .toList();
+    }
+
+    private void processResults(List<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
+        // the lines of each result are written before the next one is dumped
+        List<String> lines = new ArrayList<>();
         methods.forEach(method ->
                 analyses.forEach(id -> {
                     switch (action) {
-                        case "dump" -> dumpResult(method, id, resultGetter);
+                        case "dump" -> {
+                            lines.clear();
+                            dumpResult(method, id, resultGetter, lines);
+                            dumper.write(method.toString(), id, lines);
+                        }
                         case "compare" -> compareResult(method, id, resultGetter);
                     }
                 })
@@ -213,18 +191,17 @@ public class ResultProcessor extends ProgramAnalysis {
     }
 
     private void dumpResult(JMethod method, String id,
-                            BiFunction<JMethod, String, ?> resultGetter) {
-        out.printf("-------------------- %s (%s) --------------------%n", method, id);
+                            BiFunction<JMethod, String, ?> resultGetter,
+                            List<String> lines) {
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
-            ((Set<?>) result).forEach(e -> out.println(toString(e)));
+            ((Set<?>) result).forEach(e -> lines.add(toString(e)));
         } else if (result instanceof StmtResult<?> StmtResult) {
             IR ir = method.getIR();
-            ir.forEach(stmt -> out.println(toString(stmt, StmtResult)));
+            ir.forEach(stmt -> lines.add(toString(stmt, StmtResult)));
         } else {
-            out.println(toString(result));
+            lines.add(toString(result));
         }
-        out.println();
     }
 
     /**
@@ -249,7 +226,7 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private void compareResult(JMethod method, String id,
                                BiFunction<JMethod, String, ?> resultGetter) {
-        Set<String> inputResult = inputs.get(new Pair<>(method.toString(), id));
+        Set<String> inputResult = inputs.get(method.toString(), id);
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
             Set<String> given = ((Set<?>) result)
@@ -258,34 +235,37 @@ public class ResultProcessor extends ProgramAnalysis {
                     .collect(Collectors.toCollection(LinkedHashSet::new));
             given.forEach(s -> {
                 if (!inputResult.contains(s)) {
-                    mismatches.add(method + " " + s +
+                    addMismatch(method + " " + s +
                             " should NOT be included");
                 }
             });
             inputResult.forEach(s -> {
                 if (!given.contains(s)) {
-                    mismatches.add(method + " " + s +
+                    addMismatch(method + " " + s +
                             " should be included");
                 }
             });
         } else if (result instanceof StmtResult<?> StmtResult) {
-            Set<String> lines = inputs.get(new Pair<>(method.toString(), id));
             // if the expected input does not contain the results
             // for the given method, just skip
-            if (lines.isEmpty()) {
+            if (inputResult.isEmpty()) {
                 return;
             }
             IR ir = method.getIR();
             ir.forEach(stmt -> {
                 String stmtStr = toString(stmt);
                 String given = toString(stmt, StmtResult);
+                if (inputResult.contains(given)) {
+                    // fast path: the expected line is found by its hash
+                    return;
+                }
                 boolean foundExpeceted = false;
-                for (String line : lines) {
+                for (String line : inputResult) {
                     if (line.startsWith(stmtStr)) {
                         foundExpeceted = true;
                         if (!line.equals(given)) {
                             int idx = stmtStr.length();
-                            mismatches.add(String.format("%s %s expected: %s, given: %s",
+                            addMismatch(String.format("%s %s expected: %s, given: %s",
                                     method, stmtStr, line.substring(idx + 1),
                                     given.substring(idx + 1)));
                         }
@@ -293,13 +273,13 @@ public class ResultProcessor extends ProgramAnalysis {
                 }
                 if (!foundExpeceted) {
                     int idx = stmtStr.length();
-                    mismatches.add(String.format("%s %s expected: null, given: %s",
+                    addMismatch(String.format("%s %s expected: null, given: %s",
                             method, stmtStr, given.substring(idx + 1)));
                 }
             });
         } else if (inputResult.size() == 1) {
             if (!toString(result).equals(getOne(inputResult))) {
-                mismatches.add(String.format("%s expected: %s, given: %s",
+                addMismatch(String.format("%s expected: %s, given: %s",
                         method, getOne(inputResult), toString(result)));
             }
         } else {
@@ -308,4 +288,14 @@ public class ResultProcessor extends ProgramAnalysis {
                     id, method, inputResult, result);
         }
     }
+
+    /**
+     * Adds a mismatch, and logs it as soon as it is found
+     * if {@link #logMismatches} is true.
+     */
+    private void addMismatch(String mismatch) {
+        if (mismatches.add(mismatch) && logMismatches) {
+            logger.info(mismatch);
+        }
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+/**
+ * Values of the int elements of an abstract array object.
+ * <p>
+ * The values stored at constant indexes are kept in a dense array
+ * over the range of the written indexes, as long as the range is
+ * small. When the range grows beyond {@link #MAX_DENSE_RANGE}, the
+ * elements are summarized by the interval of the written indexes
+ * together with the meet of all their values, thus a table filled
+ * by the same value keeps that value. The values stored at NAC
+ * indexes may be read by any index, and the loads at NAC indexes may
+ * read any element, so both are summarized by single values.
+ * All updates and meets take constant time, except the growth of
+ * the dense range.
+ */
+final class ArraySummary {
+
+    /**
+     * The maximum range of the indexes that are kept densely.
+     */
+    private static final int MAX_DENSE_RANGE = 256;
+
+    private final ConstantPropagation cp;
+
+    /**
+     * The interval of the written constant indexes, which is empty
+     * if {@code lo > hi}.
+     */
+    private int lo = 0;
+
+    private int hi = -1;
+
+    /**
+     * Values of the elements from index {@link #lo}, where null means UNDEF,
+     * or null if the elements are summarized by {@link #joined}.
+     */
+    private Value[] values = new Value[0];
+
+    /**
+     * Meet of the values stored at constant indexes.
+     */
+    private Value joined = Value.getUndef();
+
+    /**
+     * Meet of the values stored at NAC indexes.
+     */
+    private Value nacValue = Value.getUndef();
+
+    ArraySummary(ConstantPropagation cp) {
+        this.cp = cp;
+    }
+
+    /**
+     * @return the value of the element at given index.
+     */
+    synchronized Value get(Value index) {
+        if (index.isUndef()) {
+            return Value.getUndef();
+        }
+        if (index.isNAC()) {
+            return cp.meetValue(joined, nacValue);
+        }
+        int i = index.getConstant();
+        Value value;
+        if (i < lo || i > hi) {
+            value = Value.getUndef();
+        } else if (values == null) {
+            value = joined;
+        } else {
+            value = values[i - lo] == null ? Value.getUndef() : values[i - lo];
+        }
+        return cp.meetValue(value, nacValue);
+    }
+
+    /**
+     * Meets {@code value} into the element at given index.
+     * Nothing is stored if the index or the value is UNDEF.
+     *
+     * @return true if the value of any element changed, otherwise false.
+     */
+    synchronized boolean store(Value index, Value value) {
+        if (index.isUndef() || value.isUndef()) {
+            return false;
+        }
+        if (index.isNAC()) {
+            Value old = nacValue;
+            nacValue = cp.meetValue(old, value);
+            return !nacValue.equals(old);
+        }
+        int i = index.getConstant();
+        Value oldJoined = joined;
+        joined = cp.meetValue(oldJoined, value);
+        boolean extended = i < lo || i > hi;
+        if (extended) {
+            int newLo = lo > hi ? i : Math.min(lo, i);
+            int newHi = lo > hi ? i : Math.max(hi, i);
+            if (values != null) {
+                if ((long) newHi - newLo >= MAX_DENSE_RANGE) {
+                    // switches to the interval summary
+                    values = null;
+                } else {
+                    Value[] grown = new Value[newHi - newLo + 1];
+                    if (lo <= hi) {
+                        System.arraycopy(values, 0, grown, lo - newLo, values.length);
+                    }
+                    values = grown;
+                }
+            }
+            lo = newLo;
+            hi = newHi;
+        }
+        if (values == null) {
+            return extended || !joined.equals(oldJoined);
+        }
+        Value old = values[i - lo];
+        Value result = old == null ? value : cp.meetValue(old, value);
+        values[i - lo] = result;
+        return !result.equals(old);
+    }
+}
@@ -25,8 +25,10 @@ package pascal.taie.analysis.dataflow.analysis.constprop;
 import pascal.taie.analysis.dataflow.fact.MapFact;
 import pascal.taie.ir.exp.Var;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Represents data facts of constant propagation, which maps variables
@@ -48,6 +50,13 @@ public class CPFact extends MapFact<Var, Value> {
         super(map);
     }
 
+    /**
+     * Creates a fact backed by the map given by {@code mapFactory}.
+     */
+    protected CPFact(Supplier<Map<Var, Value>> mapFactory) {
+        super(mapFactory);
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
@@ -69,6 +78,30 @@ public class CPFact extends MapFact<Var, Value> {
         }
     }
 
+    /**
+     * Copies the content from given fact to this fact, except that
+     * the value of variable {@code def} in given fact is replaced by
+     * {@code value}. This is equivalent to copying given fact, updating
+     * {@code def} in the copy and then copying the copy to this fact,
+     * but does not create the intermediate copy.
+     *
+     * @param def the variable to be replaced, or null if no variable
+     *            is replaced
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFrom(CPFact fact, @Nullable Var def, Value value) {
+        boolean changed = false;
+        for (Map.Entry<Var, Value> entry : fact.map.entrySet()) {
+            if (entry.getKey() != def) {
+                changed |= update(entry.getKey(), entry.getValue());
+            }
+        }
+        if (def != null && !value.isUndef()) {
+            changed |= update(def, value);
+        }
+        return changed;
+    }
+
     @Override
     public CPFact copy() {
         return new CPFact(this.map);
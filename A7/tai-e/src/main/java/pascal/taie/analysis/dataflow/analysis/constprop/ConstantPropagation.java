@@ -22,34 +22,57 @@
 
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
-import jas.Pair;
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
-import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
 import pascal.taie.analysis.graph.cfg.CFG;
-import pascal.taie.analysis.pta.PointerAnalysisResult;
-import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
-import pascal.taie.ir.proginfo.FieldRef;
 import pascal.taie.ir.stmt.DefinitionStmt;
 import pascal.taie.ir.stmt.Stmt;
-import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
+import javax.annotation.Nullable;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Implementation of intraprocedural constant propagation for int values.
+ * <p>
+ * When option {@code dense-fact} is enabled, the analysis represents
+ * the facts by {@link DenseCPFact}s, which store the lattice values in
+ * primitive arrays indexed by the variables.
+ */
 public class ConstantPropagation extends
         AbstractDataflowAnalysis<Stmt, CPFact> {
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether the facts are {@link DenseCPFact}s.
+     */
+    private final boolean denseFact;
+
+    /**
+     * The values of the fields and array elements, which are read by
+     * the loads in alias-aware mode. If it is null, the loaded values
+     * are NAC.
+     */
+    @Nullable
+    private HeapStore heap;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        denseFact = getOptions().getBooleanOrDefault("dense-fact", false);
+    }
+
+    /**
+     * Sets the store of the values of the fields and array elements,
+     * or null to treat the loaded values as NAC.
+     */
+    public void setHeapStore(@Nullable HeapStore heap) {
+        this.heap = heap;
     }
 
     @Override
@@ -60,7 +83,7 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        CPFact result = new CPFact();
+        CPFact result = newInitialFact();
 
         // Here getParams gets the parameters in function definitions
         // params should be set to NAC because they are not decided until the function is called
@@ -76,12 +99,17 @@ public class ConstantPropagation extends
     @Override
     public CPFact newInitialFact() {
         // TODO - finish me
-        return new CPFact();
+        return denseFact ? new DenseCPFact() : new CPFact();
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
+        if (fact instanceof DenseCPFact denseSource
+                && target instanceof DenseCPFact denseTarget) {
+            denseTarget.meetFrom(denseSource);
+            return;
+        }
         for(Var key: fact.keySet()) {
             Value val1 = fact.get(key);
             Value val2 = target.get(key);
@@ -117,16 +145,17 @@ public class ConstantPropagation extends
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
-        CPFact result = in.copy();
+        // OUT[s] = IN[s] except the variable defined by s, so we copy
+        // IN[s] to OUT[s] directly instead of creating a temporary fact
         if(stmt instanceof DefinitionStmt<?,?> definitionStmt) { // only takes definitions into account
             LValue lVal = definitionStmt.getLValue();
             RValue rVal = definitionStmt.getRValue();
             if(lVal instanceof Var lVar && canHoldInt(lVar)) {
                 // evaluate is called here, evaluate rVal according to IN[s]
-                result.update(lVar, evaluate(rVal, in));
+                return out.copyFrom(in, lVar, evaluate(rVal, in));
             }
         }
-        return out.copyFrom(result);
+        return out.copyFrom(in);
     }
 
     /**
@@ -265,41 +294,14 @@ public class ConstantPropagation extends
             result = in.get(var);
         } else if(exp instanceof IntLiteral intLiteral) {
             result = Value.makeConstant(intLiteral.getValue());
-        } else if(exp instanceof InstanceFieldAccess instanceFieldAccess) {
-            result = Value.getUndef();
-            Var base = instanceFieldAccess.getBase();
-            for(Obj obj: InterConstantPropagation.pta.getPointsToSet(base)) {
-                Pair<Obj, FieldRef> pair = new Pair<>(obj, instanceFieldAccess.getFieldRef());
-                result = meetValue(result, InterConstantPropagation.instanceFieldFact.getOrDefault(pair, Value.getUndef()));
-            }
-        } else if(exp instanceof StaticFieldAccess staticFieldAccess) {
-            FieldRef fieldRef = staticFieldAccess.getFieldRef();
-            Pair<JClass, FieldRef> pair = new Pair<>(fieldRef.getDeclaringClass(), fieldRef);
-            result = InterConstantPropagation.staticFieldFact.getOrDefault(pair, Value.getUndef());
-
-        } else if(exp instanceof ArrayAccess arrayAccess) {
-            Var base = arrayAccess.getBase();
-            Var index = arrayAccess.getIndex();
-            if(in.get(index).isUndef()) {
-                result = Value.getUndef();
-            } else if(in.get(index).isNAC()) {
-                result = Value.getUndef();
-                for(Obj obj: InterConstantPropagation.pta.getPointsToSet(base)) {
-                    result = meetValue(result, InterConstantPropagation.arrayNACFact.getOrDefault(obj, Value.getUndef()));
-                    for(Pair<Obj, Integer> pair: InterConstantPropagation.arrayFact.keySet()) {
-                        if(pair.getO1().equals(obj)) {
-                            result = meetValue(result, InterConstantPropagation.arrayFact.getOrDefault(pair, Value.getUndef()));
-                        }
-                    }
-                }
-            } else {
-                result = Value.getUndef();
-                for(Obj obj: InterConstantPropagation.pta.getPointsToSet(base)) {
-                    Pair<Obj, Integer> pair = new Pair<>(obj, in.get(index).getConstant());
-                    result = meetValue(result, InterConstantPropagation.arrayFact.getOrDefault(pair, Value.getUndef()));
-                    result = meetValue(result, InterConstantPropagation.arrayNACFact.getOrDefault(obj, Value.getUndef()));
-                }
-            }
+        } else if(heap != null && exp instanceof InstanceFieldAccess instanceFieldAccess) {
+            result = heap.getInstanceField(instanceFieldAccess.getBase(),
+                    instanceFieldAccess.getFieldRef());
+        } else if(heap != null && exp instanceof StaticFieldAccess staticFieldAccess) {
+            result = heap.getStaticField(staticFieldAccess.getFieldRef());
+        } else if(heap != null && exp instanceof ArrayAccess arrayAccess) {
+            result = heap.getArrayElement(arrayAccess.getBase(),
+                    in.get(arrayAccess.getIndex()));
         } else {
             result = Value.getNAC();
         }
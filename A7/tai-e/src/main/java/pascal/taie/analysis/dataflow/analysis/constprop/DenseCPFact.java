@@ -0,0 +1,438 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.AnalysisException;
+
+import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * {@link CPFact} which stores the lattice values in a primitive array
+ * indexed by {@link Var#getIndex()}.
+ * <p>
+ * Each lattice value is packed into a {@code long} cell, whose bits 32-33
+ * hold the kind of the value (UNDEF, constant or NAC) and whose lower
+ * 32 bits hold the constant. UNDEF is encoded as 0, so that a fresh array
+ * represents the fact in which all variables are UNDEF. Copy, meet and
+ * change detection between two {@link DenseCPFact}s are done on the cells
+ * directly, and {@link Value}s are only created at the API boundary,
+ * e.g., {@link #get(Var)}.
+ * <p>
+ * As the cells are indexed by {@link Var#getIndex()}, which is unique only
+ * within a method, a fact should only hold the variables of the same
+ * method. This is the case for the facts in both intra- and
+ * inter-procedural constant propagation, where each fact belongs to
+ * a statement and only holds the variables of its containing method.
+ */
+public class DenseCPFact extends CPFact {
+
+    /**
+     * Cell of UNDEF.
+     */
+    public static final long UNDEF = 0L;
+
+    /**
+     * Cell of NAC.
+     */
+    public static final long NAC = 2L << 32;
+
+    /**
+     * Kind bits of constant cells.
+     */
+    private static final long CONSTANT = 1L << 32;
+
+    private static final long CONSTANT_MASK = 0xFFFF_FFFFL;
+
+    private final Cells cells;
+
+    public DenseCPFact() {
+        super(Cells::new);
+        cells = (Cells) map;
+    }
+
+    /**
+     * @return the cell which represents the given value.
+     */
+    public static long toCell(Value value) {
+        if (value.isConstant()) {
+            return makeConstantCell(value.getConstant());
+        } else {
+            return value.isNAC() ? NAC : UNDEF;
+        }
+    }
+
+    /**
+     * @return the cell which represents the given constant.
+     */
+    public static long makeConstantCell(int constant) {
+        return CONSTANT | (constant & CONSTANT_MASK);
+    }
+
+    /**
+     * @return the value represented by the given cell.
+     */
+    public static Value toValue(long cell) {
+        if (cell == UNDEF) {
+            return Value.getUndef();
+        } else if (cell == NAC) {
+            return Value.getNAC();
+        } else {
+            return Value.makeConstant((int) cell);
+        }
+    }
+
+    /**
+     * Meets two cells, which is equivalent to
+     * {@link ConstantPropagation#meetValue(Value, Value)}.
+     */
+    public static long meetCells(long c1, long c2) {
+        if (c1 == c2 || c2 == UNDEF) {
+            return c1;
+        } else if (c1 == UNDEF) {
+            return c2;
+        } else { // different constants, or one of them is NAC
+            return NAC;
+        }
+    }
+
+    /**
+     * @return the cell of given variable in this fact.
+     */
+    public long getCell(Var var) {
+        return cells.getCell(var);
+    }
+
+    /**
+     * Updates the cell of given variable in this fact.
+     *
+     * @return if the update changes this fact.
+     */
+    public boolean updateCell(Var var, long cell) {
+        return cells.putCell(var, cell) != cell;
+    }
+
+    @Override
+    public Value get(Var key) {
+        return toValue(cells.getCell(key));
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        return updateCell(key, toCell(value));
+    }
+
+    @Override
+    public Value remove(Var key) {
+        long old = cells.putCell(key, UNDEF);
+        return old == UNDEF ? null : toValue(old);
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (fact instanceof DenseCPFact that) {
+            Cells other = that.cells;
+            cells.ensureCapacity(other.values.length);
+            long[] values = cells.values;
+            long[] otherValues = other.values;
+            boolean changed = false;
+            for (int i = 0; i < otherValues.length; ++i) {
+                long cell = otherValues[i];
+                if (cell != UNDEF && cell != values[i]) {
+                    values[i] = cell;
+                    cells.vars[i] = other.vars[i];
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+        return super.copyFrom(fact);
+    }
+
+    @Override
+    public boolean copyFrom(CPFact fact, @Nullable Var def, Value value) {
+        if (fact instanceof DenseCPFact that) {
+            long[] otherValues = that.cells.values;
+            int skip = -1;
+            long defCell = UNDEF;
+            if (def != null) {
+                int i = def.getIndex();
+                if (i < otherValues.length && that.cells.vars[i] == def) {
+                    skip = i;
+                }
+                defCell = toCell(value);
+            }
+            cells.ensureCapacity(otherValues.length);
+            long[] values = cells.values;
+            boolean changed = false;
+            for (int i = 0; i < otherValues.length; ++i) {
+                long cell = otherValues[i];
+                if (cell != UNDEF && cell != values[i] && i != skip) {
+                    values[i] = cell;
+                    cells.vars[i] = that.cells.vars[i];
+                    changed = true;
+                }
+            }
+            if (defCell != UNDEF) {
+                changed |= updateCell(def, defCell);
+            }
+            return changed;
+        }
+        return super.copyFrom(fact, def, value);
+    }
+
+    /**
+     * Meets the given fact into this fact, which is equivalent to
+     * meeting the value of each variable in the given fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean meetFrom(DenseCPFact fact) {
+        Cells other = fact.cells;
+        cells.ensureCapacity(other.values.length);
+        long[] values = cells.values;
+        long[] otherValues = other.values;
+        boolean changed = false;
+        for (int i = 0; i < otherValues.length; ++i) {
+            long cell = otherValues[i];
+            if (cell != UNDEF) {
+                long old = values[i];
+                long meet = meetCells(old, cell);
+                if (meet != old) {
+                    values[i] = meet;
+                    cells.vars[i] = other.vars[i];
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public DenseCPFact copy() {
+        DenseCPFact copy = new DenseCPFact();
+        copy.cells.values = cells.values.clone();
+        copy.cells.vars = cells.vars.clone();
+        return copy;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cells.values, UNDEF);
+    }
+
+    /**
+     * Two {@link DenseCPFact}s are equal if they hold the same cells,
+     * regardless of the capacity of their arrays. As {@link MapFact},
+     * a {@link DenseCPFact} never equals a fact of another class,
+     * so that {@link #hashCode()} is only consistent with other
+     * {@link DenseCPFact}s.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof DenseCPFact that) {
+            long[] values = cells.values;
+            long[] otherValues = that.cells.values;
+            int length = Math.max(values.length, otherValues.length);
+            for (int i = 0; i < length; ++i) {
+                long cell = i < values.length ? values[i] : UNDEF;
+                long otherCell = i < otherValues.length ? otherValues[i] : UNDEF;
+                if (cell != otherCell) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with equals(), which ignores trailing UNDEF cells
+        int hashCode = 0;
+        long[] values = cells.values;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != UNDEF) {
+                hashCode += i ^ Long.hashCode(values[i]);
+            }
+        }
+        return hashCode;
+    }
+
+    /**
+     * Map view of the cells, in which the absent (UNDEF) variables
+     * are not present.
+     */
+    private static final class Cells extends AbstractMap<Var, Value> {
+
+        private long[] values = new long[0];
+
+        /**
+         * The variable of each cell, which is set when the cell
+         * is updated, and is used to iterate the variables.
+         */
+        private Var[] vars = new Var[0];
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                int newCapacity = Math.max(capacity,
+                        values.length + (values.length >> 1));
+                values = Arrays.copyOf(values, newCapacity);
+                vars = Arrays.copyOf(vars, newCapacity);
+            }
+        }
+
+        private long getCell(Var var) {
+            int i = var.getIndex();
+            return i < values.length && vars[i] == var ? values[i] : UNDEF;
+        }
+
+        /**
+         * @return the previous cell of given variable.
+         */
+        private long putCell(Var var, long cell) {
+            int i = var.getIndex();
+            if (i >= values.length) {
+                if (cell == UNDEF) {
+                    return UNDEF;
+                }
+                ensureCapacity(i + 1);
+            }
+            long old = values[i];
+            if (vars[i] != var) {
+                if (old != UNDEF) {
+                    throw new AnalysisException(var + " conflicts with "
+                            + vars[i] + ", which belongs to another method");
+                }
+                if (cell == UNDEF) {
+                    return UNDEF;
+                }
+                vars[i] = var;
+            }
+            values[i] = cell;
+            return old;
+        }
+
+        @Override
+        public Value get(Object key) {
+            return key instanceof Var var && getCell(var) != UNDEF
+                    ? toValue(getCell(var)) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Var var && getCell(var) != UNDEF;
+        }
+
+        @Override
+        public Value put(Var key, Value value) {
+            long old = putCell(key, toCell(value));
+            return old == UNDEF ? null : toValue(old);
+        }
+
+        @Override
+        public Value remove(Object key) {
+            if (key instanceof Var var && getCell(var) != UNDEF) {
+                return toValue(putCell(var, UNDEF));
+            }
+            return null;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(values, UNDEF);
+        }
+
+        @Override
+        public Set<Entry<Var, Value>> entrySet() {
+            return new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<Var, Value>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (long cell : values) {
+                        if (cell != UNDEF) {
+                            ++size;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+
+        private final class EntryIterator implements Iterator<Entry<Var, Value>> {
+
+            private int next = nextCell(0);
+
+            private int last = -1;
+
+            private int nextCell(int from) {
+                for (int i = from; i < values.length; ++i) {
+                    if (values[i] != UNDEF) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Entry<Var, Value> next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = nextCell(next + 1);
+                return new SimpleImmutableEntry<>(vars[last], toValue(values[last]));
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                values[last] = UNDEF;
+                last = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Values of the int fields and array elements of the abstract objects,
+ * which are used by alias-aware constant propagation.
+ * <p>
+ * The abstract objects and the fields are numbered densely when
+ * the store is created, and the values are kept in maps whose keys are
+ * packed into primitive numbers, e.g., {@code (obj id << 32) | field id}
+ * for instance fields, instead of pairs of objects, and the elements of
+ * each array object are kept in an {@link ArraySummary}. The loads that
+ * depend on each store are also indexed when the store is created, from
+ * the points-to sets of the bases of the loads and the stores. The value maps
+ * support concurrent updates, and each analysis run owns its store,
+ * which should be {@link #clear() cleared} when the run finishes.
+ */
+public class HeapStore {
+
+    private final PointerAnalysisResult pta;
+
+    private final ConstantPropagation cp;
+
+    /**
+     * Ids of the abstract objects.
+     */
+    private final Map<Obj, Integer> objIds = Maps.newMap();
+
+    /**
+     * Ids of the fields accessed in the program.
+     */
+    private final Map<FieldRef, Integer> fieldIds = new ConcurrentHashMap<>();
+
+    /**
+     * The loads that may read the values written by each store,
+     * which are computed once when the store is created.
+     */
+    private final Map<Stmt, List<Stmt>> dependentLoads = Maps.newMap();
+
+    /**
+     * (obj id, field id) -> value.
+     */
+    private final Map<Long, Value> instanceFields = new ConcurrentHashMap<>();
+
+    /**
+     * obj id -> values of the array elements.
+     */
+    private final Map<Integer, ArraySummary> arrays = new ConcurrentHashMap<>();
+
+    /**
+     * field id -> value.
+     */
+    private final Map<Integer, Value> staticFields = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the store for the objects in the pointer analysis result
+     * and the fields accessed by the given statements.
+     */
+    public HeapStore(PointerAnalysisResult pta, Iterable<Stmt> stmts,
+                     ConstantPropagation cp) {
+        this.pta = pta;
+        this.cp = cp;
+        pta.getObjects().forEach(obj -> objIds.put(obj, objIds.size()));
+        // indexes the loads by the fields and objects they may read
+        Map<Long, Set<Stmt>> instanceLoads = Maps.newMap();
+        Map<Integer, Set<Stmt>> staticLoads = Maps.newMap();
+        Map<Integer, Set<Stmt>> arrayLoads = Maps.newMap();
+        List<Stmt> stores = new ArrayList<>();
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof FieldStmt<?, ?> fieldStmt) {
+                int fieldId = fieldIds.computeIfAbsent(
+                        fieldStmt.getFieldRef(), __ -> fieldIds.size());
+                if (stmt instanceof LoadField load) {
+                    if (load.getFieldAccess() instanceof InstanceFieldAccess access) {
+                        for (Obj obj : pta.getPointsToSet(access.getBase())) {
+                            instanceLoads.computeIfAbsent(key(objIds.get(obj), fieldId),
+                                    __ -> Sets.newHybridSet()).add(load);
+                        }
+                    } else {
+                        staticLoads.computeIfAbsent(fieldId,
+                                __ -> Sets.newHybridSet()).add(load);
+                    }
+                } else {
+                    stores.add(stmt);
+                }
+            } else if (stmt instanceof LoadArray load) {
+                for (Obj obj : pta.getPointsToSet(load.getArrayAccess().getBase())) {
+                    arrayLoads.computeIfAbsent(objIds.get(obj),
+                            __ -> Sets.newHybridSet()).add(load);
+                }
+            } else if (stmt instanceof StoreArray) {
+                stores.add(stmt);
+            }
+        }
+        for (Stmt stmt : stores) {
+            Set<Stmt> loads = Sets.newHybridSet();
+            if (stmt instanceof StoreField store) {
+                int fieldId = fieldIds.get(store.getFieldRef());
+                if (store.getFieldAccess() instanceof InstanceFieldAccess access) {
+                    for (Obj obj : pta.getPointsToSet(access.getBase())) {
+                        loads.addAll(instanceLoads.getOrDefault(
+                                key(objIds.get(obj), fieldId), Set.of()));
+                    }
+                } else {
+                    loads.addAll(staticLoads.getOrDefault(fieldId, Set.of()));
+                }
+            } else {
+                StoreArray store = (StoreArray) stmt;
+                for (Obj obj : pta.getPointsToSet(store.getArrayAccess().getBase())) {
+                    loads.addAll(arrayLoads.getOrDefault(objIds.get(obj), Set.of()));
+                }
+            }
+            if (!loads.isEmpty()) {
+                dependentLoads.put(stmt, List.copyOf(loads));
+            }
+        }
+    }
+
+    /**
+     * @return the value of {@code base.field}.
+     */
+    public Value getInstanceField(Var base, FieldRef field) {
+        Value result = Value.getUndef();
+        int fieldId = fieldIds.getOrDefault(field, -1);
+        if (fieldId >= 0) {
+            for (Obj obj : pta.getPointsToSet(base)) {
+                result = cp.meetValue(result, instanceFields.getOrDefault(
+                        key(objIds.get(obj), fieldId), Value.getUndef()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Meets {@code value} into the fields of the objects pointed to by {@code base}.
+     *
+     * @return true if the value of any field changed, otherwise false.
+     */
+    public boolean storeInstanceField(Var base, FieldRef field, Value value) {
+        boolean changed = false;
+        int fieldId = getFieldId(field);
+        for (Obj obj : pta.getPointsToSet(base)) {
+            changed |= meetInto(instanceFields, key(objIds.get(obj), fieldId), value);
+        }
+        return changed;
+    }
+
+    /**
+     * @return the value of given static field.
+     */
+    public Value getStaticField(FieldRef field) {
+        Integer fieldId = fieldIds.get(field);
+        return fieldId == null ? Value.getUndef()
+                : staticFields.getOrDefault(fieldId, Value.getUndef());
+    }
+
+    /**
+     * Meets {@code value} into given static field.
+     *
+     * @return true if the value of the field changed, otherwise false.
+     */
+    public boolean storeStaticField(FieldRef field, Value value) {
+        return meetInto(staticFields, getFieldId(field), value);
+    }
+
+    /**
+     * @return the id of given field. The fields which are not accessed by
+     * the statements given to the constructor are numbered on demand,
+     * and no loads depend on their stores.
+     */
+    private int getFieldId(FieldRef field) {
+        Integer fieldId = fieldIds.get(field);
+        if (fieldId == null) {
+            synchronized (fieldIds) {
+                fieldId = fieldIds.computeIfAbsent(field, __ -> fieldIds.size());
+            }
+        }
+        return fieldId;
+    }
+
+    /**
+     * @return the value of {@code base[index]}.
+     */
+    public Value getArrayElement(Var base, Value index) {
+        Value result = Value.getUndef();
+        for (Obj obj : pta.getPointsToSet(base)) {
+            ArraySummary array = arrays.get(objIds.get(obj));
+            if (array != null) {
+                result = cp.meetValue(result, array.get(index));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Meets {@code value} into {@code base[index]}. Nothing is stored
+     * if the index or the value is UNDEF.
+     *
+     * @return true if the value of any element changed, otherwise false.
+     */
+    public boolean storeArrayElement(Var base, Value index, Value value) {
+        boolean changed = false;
+        for (Obj obj : pta.getPointsToSet(base)) {
+            changed |= arrays.computeIfAbsent(objIds.get(obj),
+                    __ -> new ArraySummary(cp)).store(index, value);
+        }
+        return changed;
+    }
+
+    /**
+     * @return the loads that may read the values written by given store,
+     * i.e., the loads of the same field (array) whose bases may alias
+     * the base of the store, or an empty list if {@code stmt} is not a store.
+     */
+    public List<Stmt> getAliasedLoads(Stmt stmt) {
+        return dependentLoads.getOrDefault(stmt, List.of());
+    }
+
+    /**
+     * Removes all values in this store.
+     */
+    public void clear() {
+        instanceFields.clear();
+        arrays.clear();
+        staticFields.clear();
+    }
+
+    private <K> boolean meetInto(Map<K, Value> values, K key, Value value) {
+        Value old = values.getOrDefault(key, Value.getUndef());
+        return !values.merge(key, value, cp::meetValue).equals(old);
+    }
+
+    private static long key(int id1, int id2) {
+        return ((long) id1 << 32) | (id2 & 0xffffffffL);
+    }
+}
@@ -25,11 +25,14 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.FrozenICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
@@ -49,8 +52,29 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     protected InterSolver<Method, Node, Fact> solver;
 
+    /**
+     * Whether the ICFG is built on demand ({@link LazyICFG}) instead of
+     * fetched fully built, given by option {@code lazy-icfg}.
+     */
+    private final boolean lazyICFG;
+
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
+        lazyICFG = getOptions().getBooleanOrDefault("lazy-icfg", false);
+    }
+
+    /**
+     * @return the ICFG to be analyzed. If option {@code lazy-icfg} is set,
+     * then a {@link LazyICFG} is built on the call graph, which only
+     * materializes the methods reached by the solver.
+     */
+    @SuppressWarnings("unchecked")
+    protected ICFG<Method, Node> buildICFG() {
+        if (lazyICFG) {
+            return (ICFG<Method, Node>) (ICFG<?, ?>) new LazyICFG(
+                    World.get().getResult(CallGraphBuilder.ID));
+        }
+        return World.get().getResult(ICFGBuilder.ID);
     }
 
     /**
@@ -96,15 +120,24 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
      */
     @Override
     public Fact transferEdge(ICFGEdge<Node> edge, Fact out) {
-        if (edge instanceof NormalEdge) {
-            return transferNormalEdge((NormalEdge<Node>) edge, out);
-        } else if (edge instanceof CallToReturnEdge) {
-            return transferCallToReturnEdge((CallToReturnEdge<Node>) edge, out);
-        } else if (edge instanceof CallEdge) {
-            return transferCallEdge((CallEdge<Node>) edge, out);
-        } else {
-            return transferReturnEdge((ReturnEdge<Node>) edge, out);
-        }
+        return transferEdge(edge, FrozenICFG.kindOf(edge), out);
+    }
+
+    /**
+     * Dispatches {@link ICFGEdge} to specific edge transfer functions
+     * according to its kind.
+     */
+    @Override
+    public Fact transferEdge(ICFGEdge<Node> edge, byte kind, Fact out) {
+        return switch (kind) {
+            case FrozenICFG.NORMAL_EDGE ->
+                    transferNormalEdge((NormalEdge<Node>) edge, out);
+            case FrozenICFG.CALL_TO_RETURN_EDGE ->
+                    transferCallToReturnEdge((CallToReturnEdge<Node>) edge, out);
+            case FrozenICFG.CALL_EDGE ->
+                    transferCallEdge((CallEdge<Node>) edge, out);
+            default -> transferReturnEdge((ReturnEdge<Node>) edge, out);
+        };
     }
 
     // ---------- transfer functions for specific ICFG edges ----------
@@ -119,7 +152,7 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     @Override
     public Object analyze() {
-        icfg = World.get().getResult(ICFGBuilder.ID);
+        icfg = buildICFG();
         initialize();
         solver = new InterSolver<>(this, icfg);
         DataflowResult<Node, Fact> result = solver.solve();
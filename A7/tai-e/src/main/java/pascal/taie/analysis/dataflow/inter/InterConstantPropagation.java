@@ -22,28 +22,29 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
-import jas.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.HeapStore;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
-import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
-import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InstanceFieldAccess;
 import pascal.taie.ir.exp.InvokeExp;
-import pascal.taie.ir.exp.StaticFieldAccess;
 import pascal.taie.ir.exp.Var;
-import pascal.taie.ir.proginfo.FieldRef;
 import pascal.taie.ir.stmt.*;
-import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 
 import java.util.*;
@@ -56,43 +57,74 @@ public class InterConstantPropagation extends
 
     public static final String ID = "inter-constprop";
 
+    private static final Logger logger = LogManager.getLogger(InterConstantPropagation.class);
+
     private final ConstantPropagation cp;
-    public static final HashMap<Pair<Obj, FieldRef>, Value> instanceFieldFact = new HashMap<>();
-    public static final HashMap<Pair<Obj, Integer>, Value> arrayFact = new HashMap<>();
-    public static final HashMap<Obj, Value> arrayNACFact = new HashMap<>();
-    public static final HashMap<Pair<JClass, FieldRef>, Value> staticFieldFact = new HashMap<>();
-    public static final HashMap<Pair<JClass, FieldRef>, HashSet<LoadField>> staticFieldLoader = new HashMap<>();
-    public static final HashMap<Obj, HashSet<Var>> holding = new HashMap<>();
-    public static PointerAnalysisResult pta = null;
 
+    /**
+     * Whether dead code is detected on the results, given by option
+     * {@code dead-code}. The detected dead code is stored in {@link World}
+     * with key {@link InterDeadCodeDetection#ID}.
+     */
+    private final boolean deadCode;
+
+    /**
+     * Whether the ICFG in {@link World} is replaced by the view without
+     * the dead code, given by option {@code prune-icfg}, so that the
+     * subsequent analyses skip the dead code.
+     */
+    private final boolean pruneICFG;
+
+    /**
+     * The values of the fields and array elements in the current run.
+     */
+    private HeapStore heap;
 
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
-        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "dense-fact", getOptions().getBooleanOrDefault("dense-fact", false)));
+        deadCode = getOptions().getBooleanOrDefault("dead-code", false);
+        pruneICFG = getOptions().getBooleanOrDefault("prune-icfg", false);
     }
 
     @Override
-    protected void initialize() {
-        String ptaId = getOptions().getString("pta");
-        // You can do initialization work here
-        pta = World.get().getResult(ptaId);
-        for(Obj obj: pta.getObjects()) {
-            holding.put(obj, new HashSet<>());
-        }
-        for(Var var: pta.getVars()) {
-            for(Obj obj: pta.getPointsToSet(var)) {
-                holding.get(obj).add(var);
-            }
-        }
-        for(Stmt stmt: icfg) {
-            if(stmt instanceof LoadField loadField && loadField.getFieldAccess() instanceof StaticFieldAccess staticFieldAccess) {
-                FieldRef fieldRef = staticFieldAccess.getFieldRef();
-                Pair<JClass, FieldRef> pair = new Pair<>(fieldRef.getDeclaringClass(), fieldRef);
-                staticFieldLoader.computeIfAbsent(pair, k -> new HashSet<>());
-                staticFieldLoader.get(pair).add(loadField);
+    public Object analyze() {
+        Object result = super.analyze();
+        if (deadCode || pruneICFG) {
+            @SuppressWarnings("unchecked")
+            DataflowResult<Stmt, CPFact> constants = (DataflowResult<Stmt, CPFact>) result;
+            InterDeadCodeDetection detection = InterDeadCodeDetection.detect(
+                    icfg, constants, World.get().getResult(CallGraphBuilder.ID));
+            logger.info("#unreachable methods: {}, #dead statements: {}",
+                    detection.getUnreachableMethods().size(),
+                    detection.getNumberOfDeadStmts());
+            World.get().storeResult(InterDeadCodeDetection.ID, detection);
+            if (pruneICFG) {
+                World.get().storeResult(ICFGBuilder.ID, detection.prune());
             }
         }
+        return result;
+    }
 
+    @Override
+    protected void initialize() {
+        PointerAnalysisResult pta = World.get().getResult(getOptions().getString("pta"));
+        // indexes the field and array accesses of all nodes of the ICFG
+        // built by icfg, which may contain the methods that are not reachable
+        // in the call graph of pta, e.g., with cg=algorithm:cha, and which
+        // is built on the same call graph as the (lazy) ICFG to be analyzed
+        ICFG<JMethod, Stmt> fullICFG = World.get().getResult(ICFGBuilder.ID);
+        heap = new HeapStore(pta, fullICFG, cp);
+        cp.setHeapStore(heap);
+    }
+
+    @Override
+    protected void finish() {
+        // releases the heap values, which are not needed by the results
+        cp.setHeapStore(null);
+        heap.clear();
+        heap = null;
     }
 
     @Override
@@ -128,73 +160,49 @@ public class InterConstantPropagation extends
         boolean changed = cp.transferNode(stmt, in, out);
 
         if(stmt instanceof StoreField storeField && ConstantPropagation.canHoldInt(storeField.getRValue())) {
-            if(storeField.getFieldAccess() instanceof StaticFieldAccess staticFieldAccess) {
-                FieldRef fieldRef = staticFieldAccess.getFieldRef();
-                Pair<JClass, FieldRef> pair = new Pair<>(fieldRef.getDeclaringClass(), fieldRef);
-                Value result = cp.meetValue(staticFieldFact.getOrDefault(pair, Value.getUndef()), in.get(storeField.getRValue()));
-                if(!result.equals(staticFieldFact.getOrDefault(pair, Value.getUndef()))) {
-                    changed = true;
-                }
-                staticFieldFact.put(pair, result);
-            } else if(storeField.getFieldAccess() instanceof InstanceFieldAccess instanceFieldAccess) {
-                FieldRef fieldRef = instanceFieldAccess.getFieldRef();
-                Var base = instanceFieldAccess.getBase();
-                Value newVal = in.get(storeField.getRValue());
-                for(Obj obj: pta.getPointsToSet(base)) {
-                    Pair<Obj, FieldRef> pair = new Pair<>(obj, fieldRef);
-                    Value result = cp.meetValue(instanceFieldFact.getOrDefault(pair, Value.getUndef()), newVal);
-                    if(!result.equals(instanceFieldFact.getOrDefault(pair, Value.getUndef()))) {
-                        changed = true;
-                    }
-                    instanceFieldFact.put(pair, result);
-                }
+            Value newVal = in.get(storeField.getRValue());
+            if(storeField.getFieldAccess() instanceof InstanceFieldAccess instanceFieldAccess) {
+                changed |= heap.storeInstanceField(instanceFieldAccess.getBase(),
+                        storeField.getFieldRef(), newVal);
+            } else {
+                changed |= heap.storeStaticField(storeField.getFieldRef(), newVal);
             }
         } else if(stmt instanceof StoreArray storeArray && ConstantPropagation.canHoldInt(storeArray.getRValue())) {
-            Var base = storeArray.getArrayAccess().getBase();
-            Var index = storeArray.getArrayAccess().getIndex();
-            Value newVal = in.get(storeArray.getRValue());
-            if(in.get(index).isConstant()) {
-                Integer idx = in.get(index).getConstant();
-                for(Obj obj: pta.getPointsToSet(base)) {
-                    Pair<Obj, Integer> pair = new Pair<>(obj, idx);
-                    Value result = cp.meetValue(arrayFact.getOrDefault(pair, Value.getUndef()), newVal);
-                    if(!result.equals(arrayFact.getOrDefault(pair, Value.getUndef()))) {
-                        changed = true;
-                    }
-                    arrayFact.put(pair, result);
-                }
-            } else if(in.get(index).isNAC()) {
-                for(Obj obj: pta.getPointsToSet(base)) {
-                    Value result = cp.meetValue(arrayNACFact.getOrDefault(obj, Value.getUndef()), newVal);
-                    if(!result.equals(arrayNACFact.getOrDefault(obj, Value.getUndef()))) {
-                        changed = true;
-                    }
-                    arrayNACFact.put(obj, result);
-                }
-            }
+            changed |= heap.storeArrayElement(storeArray.getArrayAccess().getBase(),
+                    in.get(storeArray.getArrayAccess().getIndex()),
+                    in.get(storeArray.getRValue()));
         }
 
         return changed;
     }
 
+    @Override
+    public Collection<Stmt> getDependents(Stmt stmt) {
+        return heap.getAliasedLoads(stmt);
+    }
+
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
-        return out.copy();
+        // identity function, the fact is shared as it is only read
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
-        CPFact result = out.copy();
         Stmt src = edge.getSource();
         if(src instanceof Invoke invoke) {
             Var var = invoke.getResult();
-            if(null != var && ConstantPropagation.canHoldInt(var)) {
+            // copy the fact only when the result variable needs to be killed
+            if(null != var && ConstantPropagation.canHoldInt(var)
+                    && !out.get(var).isUndef()) {
+                CPFact result = out.copy();
                 result.remove(var);
+                return result;
             }
         }
-        return result;
+        return out;
     }
 
     @Override
@@ -22,8 +22,12 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import pascal.taie.analysis.graph.icfg.FrozenICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * Template interface for defining inter-procedural data-flow analysis.
  *
@@ -68,7 +72,30 @@ public interface InterDataflowAnalysis<Node, Fact> {
      *
      * @param edge the ICFG edge that the transfer function is applied on.
      * @param out  the OUT fact of source node of the edge.
-     * @return the result of edge transfer function.
+     * @return the result of edge transfer function, which may be
+     * {@code out} itself if the transfer function does not change it,
+     * thus it must not be modified by the caller.
      */
     Fact transferEdge(ICFGEdge<Node> edge, Fact out);
+
+    /**
+     * Edge Transfer function for the edges whose kinds are known,
+     * e.g., the edges of {@link FrozenICFG}. By default, this is
+     * {@link #transferEdge(ICFGEdge, Object)}.
+     *
+     * @param kind kind of the edge, given by {@link FrozenICFG#kindOf(ICFGEdge)}
+     */
+    default Fact transferEdge(ICFGEdge<Node> edge, byte kind, Fact out) {
+        return transferEdge(edge, out);
+    }
+
+    /**
+     * @return the nodes whose transfer functions read the side effects of
+     * {@code node}, e.g., the loads that may read the values written by
+     * a store, which need to be transferred again when the transfer of
+     * {@code node} changes. By default, there is no such node.
+     */
+    default Collection<Node> getDependents(Node node) {
+        return Collections.emptyList();
+    }
 }
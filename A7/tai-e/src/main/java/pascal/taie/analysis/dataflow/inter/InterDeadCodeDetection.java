@@ -0,0 +1,245 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.MethodResult;
+import pascal.taie.analysis.ResultProcessor;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.icfg.FilteredICFG;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Whole-program dead code detection based on the results of
+ * {@link InterConstantPropagation}.
+ * <p>
+ * Starting from the entry methods, the ICFG is traversed along the edges
+ * that are feasible under the interprocedural constants, i.e., the branches
+ * of if and switch statements whose conditions are constant are pruned,
+ * and the callees are entered only from reachable call sites. Thus the
+ * methods that are reachable in the call graph but only called from
+ * dead code, and the statements of dead branches (including the ones
+ * guarded by constant arguments passed from callers) are found dead.
+ * <p>
+ * The dead code of each method can be dumped or compared by
+ * {@link ResultProcessor} with analysis ID {@link #ID}.
+ */
+public final class InterDeadCodeDetection implements MethodResult<Set<Stmt>> {
+
+    public static final String ID = "inter-deadcode";
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final CallGraph<?, JMethod> callGraph;
+
+    /**
+     * Indexes of reachable statements (including entry and exit nodes)
+     * of each reachable method.
+     */
+    private final Map<JMethod, BitSet> reachable = Maps.newMap();
+
+    private InterDeadCodeDetection(ICFG<JMethod, Stmt> icfg,
+                                   CallGraph<?, JMethod> callGraph) {
+        this.icfg = icfg;
+        this.callGraph = callGraph;
+    }
+
+    /**
+     * Detects dead code in the program.
+     *
+     * @param icfg      the ICFG where the constants are computed on
+     * @param constants result of {@link InterConstantPropagation}
+     * @param callGraph call graph of the program
+     */
+    public static InterDeadCodeDetection detect(
+            ICFG<JMethod, Stmt> icfg, DataflowResult<Stmt, CPFact> constants,
+            CallGraph<?, JMethod> callGraph) {
+        InterDeadCodeDetection result = new InterDeadCodeDetection(icfg, callGraph);
+        Deque<Stmt> workList = new ArrayDeque<>();
+        icfg.entryMethods().forEach(m -> result.markReachable(icfg.getEntryOf(m), workList));
+        while (!workList.isEmpty()) {
+            Stmt node = workList.poll();
+            for (ICFGEdge<Stmt> edge : icfg.getOutEdgesOf(node)) {
+                // return sites are reached by call-to-return edges from the
+                // call sites, and the return edges from the exits of callees
+                // also lead to the return sites of dead call sites
+                if (!(edge instanceof ReturnEdge) &&
+                        isFeasible(edge, constants)) {
+                    result.markReachable(edge.getTarget(), workList);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void markReachable(Stmt node, Deque<Stmt> workList) {
+        BitSet stmts = reachable.computeIfAbsent(
+                icfg.getContainingMethodOf(node), __ -> new BitSet());
+        if (!stmts.get(node.getIndex())) {
+            stmts.set(node.getIndex());
+            workList.add(node);
+        }
+    }
+
+    /**
+     * @return false if the given edge is a branch that can never be taken
+     * under the constants, otherwise true.
+     */
+    private static boolean isFeasible(ICFGEdge<Stmt> edge,
+                                      DataflowResult<Stmt, CPFact> constants) {
+        if (!(edge instanceof NormalEdge<Stmt> normalEdge)) {
+            return true;
+        }
+        Edge<Stmt> cfgEdge = normalEdge.getCFGEdge();
+        Stmt source = edge.getSource();
+        return switch (cfgEdge.getKind()) {
+            case IF_TRUE, IF_FALSE -> {
+                ConditionExp cond = ((If) source).getCondition();
+                CPFact fact = constants.getOutFact(source);
+                Value v1 = fact.get(cond.getOperand1());
+                Value v2 = fact.get(cond.getOperand2());
+                yield !v1.isConstant() || !v2.isConstant() ||
+                        evaluate(cond.getOperator(), v1.getConstant(), v2.getConstant())
+                                == (cfgEdge.getKind() == Edge.Kind.IF_TRUE);
+            }
+            case SWITCH_CASE, SWITCH_DEFAULT -> {
+                SwitchStmt switchStmt = (SwitchStmt) source;
+                Value value = constants.getOutFact(source).get(switchStmt.getVar());
+                if (!value.isConstant()) {
+                    yield true;
+                }
+                yield cfgEdge.isSwitchCase()
+                        ? cfgEdge.getCaseValue() == value.getConstant()
+                        : !switchStmt.getCaseValues().contains(value.getConstant());
+            }
+            default -> true;
+        };
+    }
+
+    private static boolean evaluate(ConditionExp.Op op, int v1, int v2) {
+        return switch (op) {
+            case EQ -> v1 == v2;
+            case NE -> v1 != v2;
+            case LT -> v1 < v2;
+            case GT -> v1 > v2;
+            case LE -> v1 <= v2;
+            case GE -> v1 >= v2;
+        };
+    }
+
+    /**
+     * @return true if the given method may be executed, otherwise false.
+     */
+    public boolean isReachable(JMethod method) {
+        return reachable.containsKey(method);
+    }
+
+    /**
+     * @return true if the given statement (or ICFG node) may be executed,
+     * otherwise false.
+     */
+    public boolean isReachable(Stmt stmt) {
+        BitSet stmts = reachable.get(icfg.getContainingMethodOf(stmt));
+        return stmts != null && stmts.get(stmt.getIndex());
+    }
+
+    /**
+     * @return the methods that are reachable in the call graph,
+     * but never executed.
+     */
+    public List<JMethod> getUnreachableMethods() {
+        return callGraph.reachableMethods()
+                .filter(m -> !isReachable(m))
+                .toList();
+    }
+
+    /**
+     * @return the statements of the given reachable method
+     * that are never executed, in the order of their indexes.
+     */
+    public List<Stmt> getDeadStmts(JMethod method) {
+        BitSet stmts = reachable.get(method);
+        List<Stmt> deadStmts = new ArrayList<>();
+        if (stmts != null) {
+            for (Stmt stmt : method.getIR()) {
+                if (!stmts.get(stmt.getIndex())) {
+                    deadStmts.add(stmt);
+                }
+            }
+        }
+        return deadStmts;
+    }
+
+    /**
+     * @return the statements of the given method that are never executed,
+     * i.e., all its statements if the method is unreachable,
+     * in the order of their indexes.
+     */
+    @Override
+    public Set<Stmt> getResult(JMethod method) {
+        return new LinkedHashSet<>(isReachable(method)
+                ? getDeadStmts(method)
+                : method.getIR().getStmts());
+    }
+
+    /**
+     * @return the total number of dead statements in reachable methods.
+     */
+    public int getNumberOfDeadStmts() {
+        int count = 0;
+        for (Map.Entry<JMethod, BitSet> e : reachable.entrySet()) {
+            int nStmts = e.getKey().getIR().getStmts().size();
+            count += nStmts - e.getValue().get(0, nStmts).cardinality();
+        }
+        return count;
+    }
+
+    /**
+     * @return a view of the ICFG without the dead code, so that
+     * the subsequent analyses skip the dead code.
+     */
+    public ICFG<JMethod, Stmt> prune() {
+        return new FilteredICFG<>(icfg, this::isReachable, this::isReachable);
+    }
+}
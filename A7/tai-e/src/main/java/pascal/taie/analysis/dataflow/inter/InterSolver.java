@@ -20,36 +20,54 @@
  * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
  */
 
+
 package pascal.taie.analysis.dataflow.inter;
 
-import jas.Pair;
-import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
-import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.FrozenICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
-import pascal.taie.analysis.pta.core.heap.Obj;
-import pascal.taie.ir.exp.InstanceFieldAccess;
-import pascal.taie.ir.exp.StaticFieldAccess;
-import pascal.taie.ir.exp.Var;
-import pascal.taie.ir.proginfo.FieldRef;
-import pascal.taie.ir.stmt.LoadArray;
-import pascal.taie.ir.stmt.LoadField;
-import pascal.taie.ir.stmt.StoreArray;
-import pascal.taie.ir.stmt.StoreField;
-import pascal.taie.language.classes.JClass;
-import pascal.taie.util.collection.SetQueue;
-
-import java.util.Queue;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Solver for inter-procedural data-flow analysis.
  * The workload of inter-procedural analysis is heavy, thus we always
  * adopt work-list algorithm for efficiency.
+ * <p>
+ * The nodes are prioritized by the order in which the solver reaches
+ * their methods, which follows the call depths of the methods (the
+ * callers come first), and then by the reverse post-order of the CFGs
+ * of their methods. The work list is a bit set over the priorities,
+ * which is swept in that order, and it initially contains only the entry
+ * nodes of the entry methods: the other nodes are added when they are
+ * reached. As in the intra-procedural solver, each node meets the facts
+ * of all its in-edges only on its first visit, and afterwards a node
+ * pushes its OUT fact along its out-edges only when the fact changes.
+ * <p>
+ * The ICFG is frozen method by method, with the nodes numbered by their
+ * priorities, so that the solver traverses the edges and accesses
+ * the facts by indexes. A method is frozen when the solver first reaches it,
+ * i.e., when one of its nodes is the target of an edge along which a fact
+ * is pushed, hence the methods that are not reachable from the entry
+ * methods are never traversed, and if the ICFG materializes the methods
+ * on demand, e.g., {@link LazyICFG}, they are never materialized either.
+ * The facts of a node are allocated on its first visit, and the nodes
+ * that are never visited by the solver get their (initial) facts only when
+ * the result is built, except the nodes of the methods that are never
+ * materialized by the ICFG, which have no facts.
  */
 class InterSolver<Method, Node, Fact> {
 
@@ -57,9 +75,15 @@ class InterSolver<Method, Node, Fact> {
 
     private final ICFG<Method, Node> icfg;
 
-    private DataflowResult<Node, Fact> result;
+    private FrozenICFG<Node> graph;
+
+    private Object[] inFacts;
+
+    private Object[] outFacts;
+
+    private BitSet workList;
 
-    private Queue<Node> workList;
+    private BitSet visited;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
@@ -68,72 +92,186 @@ class InterSolver<Method, Node, Fact> {
     }
 
     DataflowResult<Node, Fact> solve() {
-        result = new DataflowResult<>();
         initialize();
         doSolve();
+        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        for (int i = 0; i < graph.getNumberOfNodes(); ++i) {
+            Node node = graph.getNode(i);
+            if (visited.get(i)) {
+                result.setInFact(node, getInFact(i));
+                result.setOutFact(node, getOutFact(i));
+            } else {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+            }
+        }
+        // the nodes that are never reached, e.g., the nodes of
+        // the methods that are not reachable from the entry methods
+        for (Node node : icfg) {
+            if (graph.getId(node) < 0) {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+            }
+        }
         return result;
     }
 
     private void initialize() {
-        // TODO - finish me
-        workList = new ConcurrentLinkedQueue<>();
-
-        Stream<Method> entries = icfg.entryMethods();
+        graph = new FrozenICFG<>(icfg);
+        inFacts = new Object[0];
+        outFacts = new Object[0];
+        workList = new BitSet();
+        visited = new BitSet();
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            int id = reach(entry);
+            inFacts[id] = analysis.newBoundaryFact(entry);
+            workList.set(id);
+        });
+    }
 
-        for(Node node: icfg) {
-            result.setOutFact(node, analysis.newInitialFact());
-            result.setInFact(node, analysis.newInitialFact());
+    /**
+     * Freezes the method containing given node, if the node has not been
+     * frozen. The nodes of the method are numbered in the reverse post-order
+     * of its CFG, after the nodes of the methods that have been reached.
+     *
+     * @return the id of given node.
+     */
+    private int reach(Node node) {
+        int id = graph.getId(node);
+        if (id < 0) {
+            List<Node> order = new ArrayList<>();
+            Set<Node> seen = Sets.newSet();
+            dfs(icfg.getEntryOf(icfg.getContainingMethodOf(node)), seen, order);
+            if (!seen.contains(node)) {
+                // the node is not reachable from the entry of its method,
+                // e.g., a return site after a call that never returns
+                dfs(node, seen, order);
+            }
+            graph.addNodes(order);
+            int nNodes = graph.getNumberOfNodes();
+            if (inFacts.length < nNodes) {
+                int capacity = Math.max(inFacts.length * 2, nNodes);
+                inFacts = Arrays.copyOf(inFacts, capacity);
+                outFacts = Arrays.copyOf(outFacts, capacity);
+            }
+            id = graph.getId(node);
         }
+        return id;
+    }
 
-        entries.forEach(entry -> result.setOutFact(icfg.getEntryOf(entry),
-                analysis.newBoundaryFact(icfg.getEntryOf(entry))));
+    /**
+     * Iterative depth-first search on the intra-procedural edges from
+     * given node, which skips the nodes that have been frozen, and appends
+     * the reverse post-order of the visited nodes to {@code order}.
+     */
+    private void dfs(Node start, Set<Node> seen, List<Node> order) {
+        if (graph.getId(start) >= 0 || !seen.add(start)) {
+            return;
+        }
+        int first = order.size();
+        Deque<Node> nodes = new ArrayDeque<>();
+        Deque<Iterator<ICFGEdge<Node>>> iterators = new ArrayDeque<>();
+        nodes.push(start);
+        iterators.push(icfg.getOutEdgesOf(start).iterator());
+        while (!nodes.isEmpty()) {
+            Iterator<ICFGEdge<Node>> it = iterators.peek();
+            if (it.hasNext()) {
+                ICFGEdge<Node> edge = it.next();
+                Node succ = edge.getTarget();
+                if (!(edge instanceof CallEdge || edge instanceof ReturnEdge)
+                        && graph.getId(succ) < 0 && seen.add(succ)) {
+                    nodes.push(succ);
+                    iterators.push(icfg.getOutEdgesOf(succ).iterator());
+                }
+            } else {
+                iterators.pop();
+                order.add(nodes.pop());
+            }
+        }
+        Collections.reverse(order.subList(first, order.size()));
     }
 
-    @SuppressWarnings("unchecked")
     private void doSolve() {
-        // TODO - finish me
-        workList.addAll(icfg.getNodes());
-        while(!workList.isEmpty()) {
-            Node now = workList.remove();
-            for(ICFGEdge<Node> edge: icfg.getInEdgesOf(now)) {
-                Node pre = edge.getSource();
-                analysis.meetInto(analysis.transferEdge(edge, result.getOutFact(pre)), result.getInFact(now));
+        int cursor = 0;
+        while (!workList.isEmpty()) {
+            int i = workList.nextSetBit(cursor);
+            if (i < 0) {
+                // starts next sweep
+                i = workList.nextSetBit(0);
             }
-
-            if(analysis.transferNode(now, result.getInFact(now), result.getOutFact(now))) {
-                for(Node suc: icfg.getSuccsOf(now)) {
-                    if(!workList.contains(suc)) {
-                        workList.add(suc);
-                    }
+            workList.clear(i);
+            cursor = i + 1;
+            Node node = graph.getNode(i);
+            boolean firstVisit = !visited.get(i);
+            if (firstVisit) {
+                visited.set(i);
+                if (inFacts[i] == null) { // the entries have boundary facts
+                    inFacts[i] = analysis.newInitialFact();
                 }
+                outFacts[i] = analysis.newInitialFact();
             }
-            if(now instanceof StoreField storeField) {
-                if(storeField.getFieldAccess() instanceof StaticFieldAccess staticFieldAccess) {
-                    FieldRef fieldRef = staticFieldAccess.getFieldRef();
-                    Pair<JClass, FieldRef> pair = new Pair<>(fieldRef.getDeclaringClass(), fieldRef);
-                    for(LoadField loadField: InterConstantPropagation.staticFieldLoader.get(pair)) {
-                        workList.add((Node) loadField);
-                    }
-                } else if(storeField.getFieldAccess() instanceof InstanceFieldAccess instanceFieldAccess) {
-                    Var base = instanceFieldAccess.getBase();
-                    for(Obj obj: InterConstantPropagation.pta.getPointsToSet(base)) {
-                        for(Var var: InterConstantPropagation.holding.get(obj)) {
-                            for(LoadField loadField: var.getLoadFields()) {
-                                workList.add((Node) loadField);
-                            }
-                        }
+            Fact in = getInFact(i);
+            if (firstVisit) {
+                // collects the facts that have not been pushed to this node;
+                // the unvisited sources still have initial OUT facts, which
+                // do not contribute to the meet, and they will push their
+                // facts on their first visit
+                for (int edge = graph.getFirstInEdge(i); edge >= 0;
+                     edge = graph.getNextInEdge(edge)) {
+                    int source = graph.getSource(edge);
+                    if (visited.get(source)) {
+                        analysis.meetInto(transferEdge(edge,
+                                getOutFact(source)), in);
                     }
                 }
-            } else if(now instanceof StoreArray storeArray) {
-                Var base = storeArray.getArrayAccess().getBase();
-                for(Obj obj: InterConstantPropagation.pta.getPointsToSet(base)) {
-                    for(Var var: InterConstantPropagation.holding.get(obj)) {
-                        for(LoadArray loadArray: var.getLoadArrays()) {
-                            workList.add((Node) loadArray);
-                        }
+            }
+            Fact out = getOutFact(i);
+            boolean changed = analysis.transferNode(node, in, out);
+            if (changed) {
+                // e.g., the loads which may read the values written by
+                // this store need to be transferred again
+                analysis.getDependents(node).forEach(this::reAdd);
+            }
+            if (changed || firstVisit) {
+                for (int edge = graph.getOutStart(i); edge < graph.getOutEnd(i); ++edge) {
+                    int target = graph.getTarget(edge);
+                    if (target < 0) {
+                        target = reach(graph.getEdge(edge).getTarget());
+                    }
+                    if (visited.get(target)) {
+                        // unvisited targets will collect the fact
+                        // on their first visit
+                        analysis.meetInto(transferEdge(edge, out), getInFact(target));
                     }
+                    workList.set(target);
                 }
             }
         }
     }
+
+    /**
+     * Adds given node to the work list if it has been visited.
+     * The unvisited nodes will read the latest facts on their first visit.
+     */
+    private void reAdd(Node node) {
+        int id = graph.getId(node);
+        if (id >= 0 && visited.get(id)) {
+            workList.set(id);
+        }
+    }
+
+    private Fact transferEdge(int edge, Fact out) {
+        return analysis.transferEdge(graph.getEdge(edge), graph.getKind(edge), out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact getInFact(int node) {
+        return (Fact) inFacts[node];
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact getOutFact(int node) {
+        return (Fact) outFacts[node];
+    }
 }
@@ -60,6 +60,10 @@ public class CallGraphBuilder extends ProgramAnalysis {
                     "Unknown call graph building algorithm: " + algorithm);
         };
         CallGraph<Invoke, JMethod> callGraph = builder.build();
+        if (callGraph instanceof DefaultCallGraph defaultCallGraph) {
+            // the call graph will not be modified any more
+            callGraph = defaultCallGraph.freeze();
+        }
         takeAction(callGraph);
         return callGraph;
     }
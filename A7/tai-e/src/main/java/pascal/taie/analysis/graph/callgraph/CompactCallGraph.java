@@ -0,0 +1,633 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable and compact representation of call graph.
+ * <p>
+ * Methods and call sites are numbered densely, and the call edges are
+ * stored in CSR (compressed sparse row) form: the callees of each call site
+ * (and the callers of each method) occupy a contiguous slice of an int array,
+ * and the kinds of the edges are packed into a parallel byte array.
+ * The call sites in the same method are numbered consecutively, thus the
+ * call sites in a method are also a slice of the call site array.
+ * <p>
+ * The sets returned by the {@link CallGraph} API, e.g.,
+ * {@link #getCalleesOf(Invoke)}, are views of the slices, and each query
+ * looks up the index of its argument in a hash map and allocates the view.
+ * Besides, this class provides index-based accessors, with which the
+ * clients can traverse the call graph without allocating any objects, e.g.,
+ * <pre>
+ * for (int i = cg.calleesBegin(cs); i &lt; cg.calleesEnd(cs); ++i) {
+ *     JMethod callee = cg.getMethod(cg.calleeAt(i));
+ *     ...
+ * }
+ * </pre>
+ * Instances of this class are created by {@link DefaultCallGraph#freeze()}.
+ */
+public final class CompactCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private final JMethod[] methods;
+
+    private final Map<JMethod, Integer> methodIndexes;
+
+    private final Invoke[] callSites;
+
+    private final Map<Invoke, Integer> callSiteIndexes;
+
+    /**
+     * The call sites in method m are callSites[csBegin[m], csBegin[m + 1]).
+     */
+    private final int[] csBegin;
+
+    /**
+     * Index of the method that contains each call site.
+     */
+    private final int[] csContainer;
+
+    /**
+     * The callees of call site c are callees[calleeBegin[c], calleeBegin[c + 1]).
+     */
+    private final int[] calleeBegin;
+
+    private final int[] callees;
+
+    private final byte[] calleeKinds;
+
+    /**
+     * The callers (call sites) of method m are
+     * callers[callerBegin[m], callerBegin[m + 1]).
+     */
+    private final int[] callerBegin;
+
+    private final int[] callers;
+
+    private final byte[] callerKinds;
+
+    private final int[] entries;
+
+    /**
+     * Number of reachable methods. Methods whose indexes are not less than
+     * this number are the callees that were not added as reachable methods.
+     */
+    private final int nReachable;
+
+    CompactCallGraph(AbstractCallGraph<Invoke, JMethod> callGraph) {
+        // number methods, reachable methods go first
+        List<JMethod> methodList = new ArrayList<>(callGraph.reachableMethods);
+        methodIndexes = Maps.newMap(methodList.size());
+        for (int i = 0; i < methodList.size(); ++i) {
+            methodIndexes.put(methodList.get(i), i);
+        }
+        nReachable = methodList.size();
+        for (Edge<Invoke, JMethod> edge : callGraph.callSiteToEdges.values()) {
+            if (!methodIndexes.containsKey(edge.getCallee())) {
+                methodIndexes.put(edge.getCallee(), methodList.size());
+                methodList.add(edge.getCallee());
+            }
+        }
+        methods = methodList.toArray(new JMethod[0]);
+        int nMethods = methods.length;
+        // number call sites, the call sites in the same method are consecutive
+        List<Invoke> callSiteList = new ArrayList<>();
+        csBegin = new int[nMethods + 1];
+        for (int m = 0; m < nMethods; ++m) {
+            csBegin[m] = callSiteList.size();
+            callSiteList.addAll(callGraph.callSitesIn.get(methods[m]));
+        }
+        csBegin[nMethods] = callSiteList.size();
+        callSites = callSiteList.toArray(new Invoke[0]);
+        int nCallSites = callSites.length;
+        callSiteIndexes = Maps.newMap(nCallSites);
+        csContainer = new int[nCallSites];
+        for (int m = 0; m < nMethods; ++m) {
+            for (int c = csBegin[m]; c < csBegin[m + 1]; ++c) {
+                callSiteIndexes.put(callSites[c], c);
+                csContainer[c] = m;
+            }
+        }
+        // build out-edges (call site -> callees)
+        int nEdges = 0;
+        for (Invoke callSite : callSites) {
+            nEdges += callGraph.callSiteToEdges.get(callSite).size();
+        }
+        calleeBegin = new int[nCallSites + 1];
+        callees = new int[nEdges];
+        calleeKinds = new byte[nEdges];
+        int[] inDegrees = new int[nMethods];
+        int pos = 0;
+        for (int c = 0; c < nCallSites; ++c) {
+            calleeBegin[c] = pos;
+            for (Edge<Invoke, JMethod> edge : callGraph.callSiteToEdges.get(callSites[c])) {
+                int callee = methodIndexes.get(edge.getCallee());
+                callees[pos] = callee;
+                calleeKinds[pos] = (byte) edge.getKind().ordinal();
+                ++inDegrees[callee];
+                ++pos;
+            }
+            sortCallees(calleeBegin[c], pos);
+        }
+        calleeBegin[nCallSites] = pos;
+        // build in-edges (method -> callers), callers are ordered by index,
+        // thus the edges from the same call site to a method are adjacent
+        callerBegin = new int[nMethods + 1];
+        for (int m = 0; m < nMethods; ++m) {
+            callerBegin[m + 1] = callerBegin[m] + inDegrees[m];
+        }
+        callers = new int[nEdges];
+        callerKinds = new byte[nEdges];
+        int[] next = Arrays.copyOf(callerBegin, nMethods);
+        for (int c = 0; c < nCallSites; ++c) {
+            for (int i = calleeBegin[c]; i < calleeBegin[c + 1]; ++i) {
+                int p = next[callees[i]]++;
+                callers[p] = c;
+                callerKinds[p] = calleeKinds[i];
+            }
+        }
+        entries = callGraph.entryMethods.stream()
+                .mapToInt(m -> methodIndexes.getOrDefault(m, -1))
+                .filter(m -> m >= 0)
+                .toArray();
+    }
+
+    /**
+     * Sorts the callees in callees[begin, end) by their indexes, so that
+     * the edges with the same callee but different kinds are adjacent.
+     * The slices are short, thus insertion sort is used.
+     */
+    private void sortCallees(int begin, int end) {
+        for (int i = begin + 1; i < end; ++i) {
+            int callee = callees[i];
+            byte kind = calleeKinds[i];
+            int j = i - 1;
+            for (; j >= begin && callees[j] > callee; --j) {
+                callees[j + 1] = callees[j];
+                calleeKinds[j + 1] = calleeKinds[j];
+            }
+            callees[j + 1] = callee;
+            calleeKinds[j + 1] = kind;
+        }
+    }
+
+    // Index-based accessors.
+
+    /**
+     * @return the number of call sites in this call graph.
+     */
+    public int getNumberOfCallSites() {
+        return callSites.length;
+    }
+
+    /**
+     * @return the index of given method, or -1 if this call graph
+     * does not contain the method.
+     */
+    public int getMethodIndex(JMethod method) {
+        Integer index = methodIndexes.get(method);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return the method of given index.
+     */
+    public JMethod getMethod(int index) {
+        return methods[index];
+    }
+
+    /**
+     * @return the index of given call site, or -1 if this call graph
+     * does not contain the call site.
+     */
+    public int getCallSiteIndex(Invoke callSite) {
+        Integer index = callSiteIndexes.get(callSite);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return the call site of given index.
+     */
+    public Invoke getCallSite(int index) {
+        return callSites[index];
+    }
+
+    /**
+     * @return index of the method that contains the call site of given index.
+     */
+    public int getContainerIndex(int callSite) {
+        return csContainer[callSite];
+    }
+
+    /**
+     * @return the index of the first call site in the given method.
+     */
+    public int callSitesBegin(int method) {
+        return csBegin[method];
+    }
+
+    /**
+     * @return the index after the last call site in the given method.
+     */
+    public int callSitesEnd(int method) {
+        return csBegin[method + 1];
+    }
+
+    /**
+     * @return the position of the first callee of the given call site.
+     * The callees of a call site are ordered by their indexes, and a callee
+     * appears more than once if it is called via different kinds of edges.
+     */
+    public int calleesBegin(int callSite) {
+        return calleeBegin[callSite];
+    }
+
+    /**
+     * @return the position after the last callee of the given call site.
+     */
+    public int calleesEnd(int callSite) {
+        return calleeBegin[callSite + 1];
+    }
+
+    /**
+     * @return the method index of the callee at the given position.
+     */
+    public int calleeAt(int pos) {
+        return callees[pos];
+    }
+
+    /**
+     * @return the kind of the call edge to the callee at the given position.
+     */
+    public CallKind calleeKindAt(int pos) {
+        return KINDS[calleeKinds[pos]];
+    }
+
+    /**
+     * @return the position of the first caller of the given method.
+     */
+    public int callersBegin(int method) {
+        return callerBegin[method];
+    }
+
+    /**
+     * @return the position after the last caller of the given method.
+     */
+    public int callersEnd(int method) {
+        return callerBegin[method + 1];
+    }
+
+    /**
+     * @return the call site index of the caller at the given position.
+     */
+    public int callerAt(int pos) {
+        return callers[pos];
+    }
+
+    /**
+     * @return the kind of the call edge from the caller at the given position.
+     */
+    public CallKind callerKindAt(int pos) {
+        return KINDS[callerKinds[pos]];
+    }
+
+    // Implementation for CallGraph interface.
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        int m = getMethodIndex(callee);
+        return m < 0 ? Set.of() :
+                new ArraySlice<>(callSites, callers, callerBegin[m], callerBegin[m + 1]);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        int c = getCallSiteIndex(callSite);
+        return c < 0 ? Set.of() :
+                new ArraySlice<>(methods, callees, calleeBegin[c], calleeBegin[c + 1]);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        return callSite.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        int m = getMethodIndex(method);
+        return m < 0 ? Set.of() :
+                new ArraySlice<>(callSites, null, csBegin[m], csBegin[m + 1]);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        int c = getCallSiteIndex(callSite);
+        return c < 0 ? Stream.of() : edgesOutOf(c);
+    }
+
+    private Stream<Edge<Invoke, JMethod>> edgesOutOf(int c) {
+        return IntStream.range(calleeBegin[c], calleeBegin[c + 1])
+                .mapToObj(i -> new Edge<>(KINDS[calleeKinds[i]],
+                        callSites[c], methods[callees[i]]));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        int m = getMethodIndex(method);
+        return m < 0 ? Stream.of() :
+                IntStream.range(callerBegin[m], callerBegin[m + 1])
+                        .mapToObj(i -> new Edge<>(KINDS[callerKinds[i]],
+                                callSites[callers[i]], method));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return IntStream.range(0, callSites.length)
+                .boxed()
+                .flatMap(this::edgesOutOf);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return callees.length;
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return Arrays.stream(entries).mapToObj(m -> methods[m]);
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return Arrays.stream(methods, 0, nReachable);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return nReachable;
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        int m = getMethodIndex(method);
+        return 0 <= m && m < nReachable;
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        int s = getMethodIndex(source);
+        int t = getMethodIndex(target);
+        if (s < 0 || t < 0) {
+            return false;
+        }
+        for (int c = csBegin[s]; c < csBegin[s + 1]; ++c) {
+            for (int i = calleeBegin[c]; i < calleeBegin[c + 1]; ++i) {
+                if (callees[i] == t) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        int m = getMethodIndex(method);
+        if (m < 0) {
+            return Set.of();
+        }
+        Set<MethodEdge<Invoke, JMethod>> edges = Sets.newHybridSet();
+        for (int i = callerBegin[m]; i < callerBegin[m + 1]; ++i) {
+            int c = callers[i];
+            edges.add(new MethodEdge<>(methods[csContainer[c]], method, callSites[c]));
+        }
+        return edges;
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        int m = getMethodIndex(method);
+        if (m < 0) {
+            return Set.of();
+        }
+        Set<MethodEdge<Invoke, JMethod>> edges = Sets.newHybridSet();
+        for (int c = csBegin[m]; c < csBegin[m + 1]; ++c) {
+            for (int i = calleeBegin[c]; i < calleeBegin[c + 1]; ++i) {
+                edges.add(new MethodEdge<>(method, methods[callees[i]], callSites[c]));
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        int m = getMethodIndex(node);
+        if (m < 0) {
+            return Set.of();
+        }
+        Set<JMethod> preds = Sets.newHybridSet();
+        for (int i = callerBegin[m]; i < callerBegin[m + 1]; ++i) {
+            preds.add(methods[csContainer[callers[i]]]);
+        }
+        return preds;
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        int m = getMethodIndex(node);
+        if (m < 0) {
+            return Set.of();
+        }
+        Set<JMethod> succs = Sets.newHybridSet();
+        for (int i = calleeBegin[csBegin[m]]; i < calleeBegin[csBegin[m + 1]]; ++i) {
+            succs.add(methods[callees[i]]);
+        }
+        return succs;
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return new AbstractSet<>() {
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof JMethod m && CompactCallGraph.this.contains(m);
+            }
+
+            @Override
+            public Iterator<JMethod> iterator() {
+                return new ArraySlice<>(methods, null, 0, nReachable).iterator();
+            }
+
+            @Override
+            public int size() {
+                return nReachable;
+            }
+        };
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return nReachable;
+    }
+
+    // Implementation for StmtResult interface.
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+
+    /**
+     * Unmodifiable set view of a slice of an array. If {@code indexes}
+     * is not null, the slice is taken from {@code indexes} and each element
+     * of the slice is an index into {@code elements}; otherwise, the slice
+     * is taken from {@code elements} directly.
+     * <p>
+     * The same index may appear adjacently in a slice of {@code indexes},
+     * e.g., when a call site calls a method via different kinds of edges,
+     * and such duplicates are skipped by this view.
+     */
+    private static final class ArraySlice<E> extends AbstractSet<E> {
+
+        private final E[] elements;
+
+        private final int[] indexes;
+
+        private final int begin;
+
+        private final int end;
+
+        /**
+         * Number of distinct elements, computed on demand.
+         */
+        private int size = -1;
+
+        private ArraySlice(E[] elements, int[] indexes, int begin, int end) {
+            this.elements = elements;
+            this.indexes = indexes;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        private E get(int i) {
+            return indexes == null ? elements[i] : elements[indexes[i]];
+        }
+
+        /**
+         * @return true if the element at position i is the same as
+         * the one at position i - 1.
+         */
+        private boolean isDuplicate(int i) {
+            return indexes != null && i > begin && indexes[i] == indexes[i - 1];
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (int i = begin; i < end; ++i) {
+                if (get(i).equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int cursor = begin;
+
+                @Override
+                public boolean hasNext() {
+                    return cursor < end;
+                }
+
+                @Override
+                public E next() {
+                    if (cursor >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    E e = get(cursor++);
+                    while (cursor < end && isDuplicate(cursor)) {
+                        ++cursor;
+                    }
+                    return e;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            if (size < 0) {
+                int n = 0;
+                for (int i = begin; i < end; ++i) {
+                    if (!isDuplicate(i)) {
+                        ++n;
+                    }
+                }
+                size = n;
+            }
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return begin == end;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * View of an ICFG which only contains the nodes and methods accepted by
+ * given filters, e.g., the code that is found reachable by an analysis,
+ * so that the subsequent analyses on this view skip the rest.
+ * An edge is in this view if both its source and target are in this view
+ * (and the call site of a return edge is in this view).
+ * <p>
+ * The filters must not change after this view is created, as the filtered
+ * edges and nodes are materialized on their first queries.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of nodes
+ */
+public class FilteredICFG<Method, Node> implements ICFG<Method, Node> {
+
+    private final ICFG<Method, Node> icfg;
+
+    private final Predicate<? super Node> nodeFilter;
+
+    private final Predicate<? super Method> methodFilter;
+
+    private final Map<Node, Set<ICFGEdge<Node>>> inEdges = Maps.newMap();
+
+    private final Map<Node, Set<ICFGEdge<Node>>> outEdges = Maps.newMap();
+
+    private Set<Node> nodes;
+
+    /**
+     * @param icfg         the underlying ICFG
+     * @param nodeFilter   accepts the nodes in this view
+     * @param methodFilter accepts the methods in this view, which must
+     *                     accept the containing methods of accepted nodes
+     */
+    public FilteredICFG(ICFG<Method, Node> icfg,
+                        Predicate<? super Node> nodeFilter,
+                        Predicate<? super Method> methodFilter) {
+        this.icfg = icfg;
+        this.nodeFilter = nodeFilter;
+        this.methodFilter = methodFilter;
+    }
+
+    @Override
+    public Stream<Method> entryMethods() {
+        return icfg.entryMethods().filter(methodFilter);
+    }
+
+    @Override
+    public Set<ICFGEdge<Node>> getInEdgesOf(Node node) {
+        return inEdges.computeIfAbsent(node, n ->
+                filter(icfg.getInEdgesOf(n), this::hasEdge));
+    }
+
+    @Override
+    public Set<ICFGEdge<Node>> getOutEdgesOf(Node node) {
+        return outEdges.computeIfAbsent(node, n ->
+                filter(icfg.getOutEdgesOf(n), this::hasEdge));
+    }
+
+    @Override
+    public Set<Method> getCalleesOf(Node callSite) {
+        return filter(icfg.getCalleesOf(callSite), methodFilter);
+    }
+
+    @Override
+    public Set<Node> getReturnSitesOf(Node callSite) {
+        return filter(icfg.getReturnSitesOf(callSite), nodeFilter);
+    }
+
+    @Override
+    public Node getEntryOf(Method method) {
+        return icfg.getEntryOf(method);
+    }
+
+    @Override
+    public Node getExitOf(Method method) {
+        return icfg.getExitOf(method);
+    }
+
+    @Override
+    public Set<Node> getCallersOf(Method method) {
+        return filter(icfg.getCallersOf(method), nodeFilter);
+    }
+
+    @Override
+    public Method getContainingMethodOf(Node node) {
+        return icfg.getContainingMethodOf(node);
+    }
+
+    @Override
+    public boolean isCallSite(Node node) {
+        return icfg.isCallSite(node);
+    }
+
+    @Override
+    public boolean hasNode(Node node) {
+        return nodeFilter.test(node) && icfg.hasNode(node);
+    }
+
+    @Override
+    public boolean hasEdge(Node source, Node target) {
+        return nodeFilter.test(source) && nodeFilter.test(target)
+                && getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    private boolean hasEdge(ICFGEdge<Node> edge) {
+        return nodeFilter.test(edge.getSource())
+                && nodeFilter.test(edge.getTarget())
+                && (!(edge instanceof ReturnEdge<Node> returnEdge)
+                || nodeFilter.test(returnEdge.getCallSite()));
+    }
+
+    /**
+     * The predecessors and successors are the ends of the edges in this
+     * view, so that they are consistent with {@link #hasEdge(Object, Object)}.
+     */
+    @Override
+    public Set<Node> getPredsOf(Node node) {
+        return getInEdgesOf(node)
+                .stream()
+                .map(ICFGEdge::getSource)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<Node> getSuccsOf(Node node) {
+        return getOutEdgesOf(node)
+                .stream()
+                .map(ICFGEdge::getTarget)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<Node> getNodes() {
+        if (nodes == null) {
+            nodes = filter(icfg.getNodes(), nodeFilter);
+        }
+        return nodes;
+    }
+
+    /**
+     * @return unmodifiable set of the elements of given set
+     * that are accepted by the filter.
+     */
+    private static <E> Set<E> filter(Set<E> set, Predicate<? super E> filter) {
+        Set<E> result = new LinkedHashSet<>();
+        for (E e : set) {
+            if (filter.test(e)) {
+                result.add(e);
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+}
@@ -52,7 +52,8 @@ import static pascal.taie.util.collection.CollectionUtils.sum;
 
 /**
  * Dump points-to set to file or compare the analysis result with
- * the ones read from input file.
+ * the ones read from input file, or export the analysis result in
+ * machine-readable formats by {@link ResultExporter}.
  * Currently, the compare functionality is mainly for testing purpose.
  * It is not efficient and not recommended applying on large program.
  */
@@ -80,6 +81,8 @@ public class ResultProcessor {
         switch (action) {
             case "dump" -> dumpPointsToSet(result, file);
             case "compare" -> comparePointsToSet(result, file);
+            case "export" -> ResultExporter.export(result, file,
+                    options.getString("export-format"));
         }
     }
 
@@ -0,0 +1,167 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DenseCPFactTest {
+
+    private static Var var(int index) {
+        return new Var(null, "v" + index, PrimitiveType.INT, index);
+    }
+
+    @Test
+    public void testCellRoundTrip() {
+        int[] constants = {0, 1, -1, 42, -42,
+                Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int c : constants) {
+            Value v = Value.makeConstant(c);
+            long cell = DenseCPFact.toCell(v);
+            assertTrue(cell != DenseCPFact.UNDEF && cell != DenseCPFact.NAC);
+            assertEquals(v, DenseCPFact.toValue(cell));
+        }
+        assertEquals(DenseCPFact.UNDEF, DenseCPFact.toCell(Value.getUndef()));
+        assertEquals(DenseCPFact.NAC, DenseCPFact.toCell(Value.getNAC()));
+        assertEquals(Value.getUndef(), DenseCPFact.toValue(DenseCPFact.UNDEF));
+        assertEquals(Value.getNAC(), DenseCPFact.toValue(DenseCPFact.NAC));
+    }
+
+    @Test
+    public void testUpdateAndGet() {
+        DenseCPFact fact = new DenseCPFact();
+        Var a = var(0), b = var(1), c = var(2);
+        assertEquals(Value.getUndef(), fact.get(a));
+        assertTrue(fact.update(a, Value.makeConstant(-1)));
+        assertFalse(fact.update(a, Value.makeConstant(-1)));
+        assertTrue(fact.update(b, Value.getNAC()));
+        // UNDEF is the absence of a variable
+        assertFalse(fact.update(c, Value.getUndef()));
+        assertEquals(Value.makeConstant(-1), fact.get(a));
+        assertEquals(Value.getNAC(), fact.get(b));
+        assertEquals(Value.getUndef(), fact.get(c));
+        assertEquals(2, fact.keySet().size());
+        assertEquals(Value.getNAC(), fact.remove(b));
+        assertNull(fact.remove(b));
+        assertEquals(1, fact.keySet().size());
+    }
+
+    @Test
+    public void testGrowth() {
+        DenseCPFact fact = new DenseCPFact();
+        Var[] vars = new Var[100];
+        for (int i = 0; i < vars.length; i += 7) {
+            vars[i] = var(i);
+            fact.update(vars[i], Value.makeConstant(-i));
+        }
+        Var far = var(1000);
+        assertTrue(fact.update(far, Value.getNAC()));
+        for (int i = 0; i < vars.length; i += 7) {
+            assertEquals(Value.makeConstant(-i), fact.get(vars[i]));
+        }
+        assertEquals(Value.getNAC(), fact.get(far));
+        assertEquals(Value.getUndef(), fact.get(var(999)));
+        assertEquals(Value.getUndef(), fact.get(var(5000)));
+    }
+
+    @Test
+    public void testEqualsIgnoresCapacity() {
+        DenseCPFact small = new DenseCPFact();
+        DenseCPFact large = new DenseCPFact();
+        Var a = var(0);
+        Var far = var(64);
+        small.update(a, Value.makeConstant(-3));
+        large.update(a, Value.makeConstant(-3));
+        large.update(far, Value.makeConstant(1));
+        large.remove(far);
+        assertEquals(small, large);
+        assertEquals(large, small);
+        assertEquals(small.hashCode(), large.hashCode());
+        large.update(far, Value.getNAC());
+        assertFalse(small.equals(large));
+        assertFalse(large.equals(small));
+    }
+
+    @Test
+    public void testNotEqualToOtherFacts() {
+        DenseCPFact dense = new DenseCPFact();
+        CPFact plain = new CPFact();
+        Var a = var(0);
+        dense.update(a, Value.makeConstant(1));
+        plain.update(a, Value.makeConstant(1));
+        assertFalse(dense.equals(plain));
+        assertFalse(plain.equals(dense));
+    }
+
+    @Test
+    public void testCopyFromChangeDetection() {
+        Var a = var(0), b = var(3), c = var(40);
+        DenseCPFact source = new DenseCPFact();
+        source.update(a, Value.makeConstant(-7));
+        source.update(c, Value.getNAC());
+        DenseCPFact target = new DenseCPFact();
+        assertTrue(target.copyFrom(source));
+        assertEquals(source, target);
+        assertFalse(target.copyFrom(source));
+        // copyFrom() only adds the non-UNDEF cells of the source
+        target.update(b, Value.makeConstant(2));
+        assertFalse(target.copyFrom(source));
+        assertEquals(Value.makeConstant(2), target.get(b));
+
+        DenseCPFact killed = new DenseCPFact();
+        assertTrue(killed.copyFrom(source, a, Value.makeConstant(5)));
+        assertEquals(Value.makeConstant(5), killed.get(a));
+        assertEquals(Value.getNAC(), killed.get(c));
+        assertFalse(killed.copyFrom(source, a, Value.makeConstant(5)));
+    }
+
+    @Test
+    public void testMeetFromChangeDetection() {
+        Var a = var(0), b = var(1), c = var(70);
+        DenseCPFact target = new DenseCPFact();
+        target.update(a, Value.makeConstant(-1));
+        target.update(b, Value.makeConstant(2));
+
+        DenseCPFact same = new DenseCPFact();
+        same.update(a, Value.makeConstant(-1));
+        assertFalse(target.meetFrom(same));
+
+        // meeting with an empty (all UNDEF) fact changes nothing
+        assertFalse(target.meetFrom(new DenseCPFact()));
+
+        DenseCPFact other = new DenseCPFact();
+        other.update(b, Value.makeConstant(3));
+        other.update(c, Value.makeConstant(Integer.MIN_VALUE));
+        assertTrue(target.meetFrom(other));
+        assertEquals(Value.makeConstant(-1), target.get(a));
+        assertEquals(Value.getNAC(), target.get(b));
+        assertEquals(Value.makeConstant(Integer.MIN_VALUE), target.get(c));
+        assertFalse(target.meetFrom(other));
+    }
+}
@@ -23,16 +23,39 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.ResultProcessor;
 import pascal.taie.analysis.Tests;
 import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.analysis.dataflow.inter.InterDeadCodeDetection;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class InterCPAliasTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
 
     void test(String inputClass) {
-        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:true;pta:cspta",
+        test(inputClass, "edge-refine:false;alias-aware:true;pta:cspta");
+    }
+
+    void test(String inputClass, String opts) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID, opts,
                 "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta"
                 //, "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                            // to output ICFGs for the test cases
@@ -83,4 +106,78 @@ public class InterCPAliasTest {
     public void testStaticFieldMultiStores() {
         test("StaticFieldMultiStores");
     }
+
+    /**
+     * The ICFG built on demand gives the same results as the ICFG
+     * built by {@code icfg}, as the heap is indexed independently of
+     * the methods that have been materialized.
+     */
+    @Test
+    public void testLazyICFG() {
+        test("InstanceField", "edge-refine:false;alias-aware:true;pta:cspta;lazy-icfg:true");
+        test("StaticField", "edge-refine:false;alias-aware:true;pta:cspta;lazy-icfg:true");
+        test("ArrayInter2", "edge-refine:false;alias-aware:true;pta:cspta;lazy-icfg:true");
+    }
+
+    /**
+     * With the call graph built by CHA, the ICFG contains the methods
+     * that are unreachable in the call graph of pta, e.g., B.set(),
+     * whose stores are visited by the solver.
+     */
+    @Test
+    public void testCHACallGraph() {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", "CHAStore",
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cha",
+                "-a", InterConstantPropagation.ID
+                + "=edge-refine:false;alias-aware:true;pta:cspta"});
+        assertNotNull(World.get().getResult(InterConstantPropagation.ID));
+    }
+
+    /**
+     * The else branch of DeadCode.branch() is dead under the constant
+     * argument, so DeadCode.unused() is only called from dead code.
+     * The dead code is dumped by {@link ResultProcessor}, and is pruned
+     * from the ICFG with option {@code prune-icfg}.
+     */
+    @Test
+    public void testDeadCode() throws IOException {
+        Path dump = Files.createTempFile("DeadCode", ".txt");
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", "DeadCode",
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta",
+                "-a", InterConstantPropagation.ID + "=" +
+                "edge-refine:false;alias-aware:true;pta:cspta;prune-icfg:true",
+                "-a", ResultProcessor.ID + "=analyses:[" +
+                InterDeadCodeDetection.ID + "];action:dump;file:" + dump});
+        InterDeadCodeDetection detection = World.get()
+                .getResult(InterDeadCodeDetection.ID);
+        JClass deadCode = World.get().getClassHierarchy().getClass("DeadCode");
+        JMethod branch = deadCode.getDeclaredMethod("branch");
+        JMethod unused = deadCode.getDeclaredMethod("unused");
+        assertEquals(List.of(unused), detection.getUnreachableMethods()
+                .stream()
+                .filter(m -> m.getDeclaringClass() == deadCode)
+                .toList());
+        assertTrue(detection.isReachable(branch.getIR().getStmt(0)));
+        Stmt callSite = detection.getDeadStmts(branch)
+                .stream()
+                .filter(s -> s instanceof Invoke)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(unused.getIR().getStmts().size(),
+                detection.getResult(unused).size());
+        // the pruned ICFG
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        assertTrue(icfg.hasNode(icfg.getEntryOf(branch)));
+        assertFalse(icfg.hasNode(callSite));
+        assertFalse(icfg.hasNode(icfg.getEntryOf(unused)));
+        assertTrue(icfg.getCallersOf(unused).isEmpty());
+        assertTrue(icfg.getOutEdgesOf(icfg.getExitOf(unused)).isEmpty());
+        assertTrue(icfg.getNodes().stream().noneMatch(
+                n -> icfg.getContainingMethodOf(n) == unused));
+        // the dumped dead code
+        String dumped = Files.readString(dump);
+        Files.delete(dump);
+        assertTrue(dumped.contains(
+                unused + " (" + InterDeadCodeDetection.ID + ")"));
+    }
 }
@@ -0,0 +1,201 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.analysis.graph.cfg.CFGEdges;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ICFG which is built by hand for testing, whose methods and nodes
+ * are given by names. The first added method is the entry method.
+ */
+public class MockICFG implements ICFG<String, String> {
+
+    private final Set<String> nodes = new LinkedHashSet<>();
+
+    private final Map<String, Set<ICFGEdge<String>>> inEdges = new HashMap<>();
+
+    private final Map<String, Set<ICFGEdge<String>>> outEdges = new HashMap<>();
+
+    private final Map<String, String> entries = new LinkedHashMap<>();
+
+    private final Map<String, String> exits = new HashMap<>();
+
+    private final Map<String, String> containers = new HashMap<>();
+
+    private final Map<String, Set<String>> callees = new HashMap<>();
+
+    /**
+     * Adds a method with its entry and exit nodes.
+     */
+    public MockICFG method(String method, String entry, String exit) {
+        entries.put(method, entry);
+        exits.put(method, exit);
+        node(method, entry);
+        node(method, exit);
+        return this;
+    }
+
+    /**
+     * Adds nodes to given method.
+     */
+    public MockICFG node(String method, String... nodes) {
+        for (String node : nodes) {
+            this.nodes.add(node);
+            containers.put(node, method);
+            inEdges.putIfAbsent(node, new LinkedHashSet<>());
+            outEdges.putIfAbsent(node, new LinkedHashSet<>());
+        }
+        return this;
+    }
+
+    /**
+     * Adds normal edges along given nodes.
+     */
+    public MockICFG normal(String... nodes) {
+        for (int i = 0; i + 1 < nodes.length; ++i) {
+            addEdge(new NormalEdge<>(newCFGEdge(nodes[i], nodes[i + 1])));
+        }
+        return this;
+    }
+
+    /**
+     * Adds a call from {@code callSite} to {@code callee}, which returns
+     * to {@code returnSite}, i.e., the call-to-return, call and return edges.
+     */
+    public MockICFG call(String callSite, String returnSite, String callee) {
+        if (callees.computeIfAbsent(callSite, cs -> new LinkedHashSet<>())
+                .isEmpty()) {
+            addEdge(new CallToReturnEdge<>(newCFGEdge(callSite, returnSite)));
+        }
+        callees.get(callSite).add(callee);
+        addEdge(new CallEdge<>(callSite, getEntryOf(callee), null));
+        addEdge(new ReturnEdge<>(getExitOf(callee), returnSite, callSite,
+                List.of(), List.of()));
+        return this;
+    }
+
+    private static Edge<String> newCFGEdge(String source, String target) {
+        return CFGEdges.newEdge(Edge.Kind.FALL_THROUGH, source, target);
+    }
+
+    private void addEdge(ICFGEdge<String> edge) {
+        outEdges.get(edge.getSource()).add(edge);
+        inEdges.get(edge.getTarget()).add(edge);
+    }
+
+    @Override
+    public Stream<String> entryMethods() {
+        return entries.keySet().stream().limit(1);
+    }
+
+    @Override
+    public Set<ICFGEdge<String>> getInEdgesOf(String node) {
+        return inEdges.get(node);
+    }
+
+    @Override
+    public Set<ICFGEdge<String>> getOutEdgesOf(String node) {
+        return outEdges.get(node);
+    }
+
+    @Override
+    public Set<String> getCalleesOf(String callSite) {
+        return callees.getOrDefault(callSite, Set.of());
+    }
+
+    @Override
+    public Set<String> getReturnSitesOf(String callSite) {
+        return getOutEdgesOf(callSite).stream()
+                .filter(e -> e instanceof CallToReturnEdge)
+                .map(ICFGEdge::getTarget)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public String getEntryOf(String method) {
+        return entries.get(method);
+    }
+
+    @Override
+    public String getExitOf(String method) {
+        return exits.get(method);
+    }
+
+    @Override
+    public Set<String> getCallersOf(String method) {
+        return callees.entrySet()
+                .stream()
+                .filter(e -> e.getValue().contains(method))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public String getContainingMethodOf(String node) {
+        return containers.get(node);
+    }
+
+    @Override
+    public boolean isCallSite(String node) {
+        return callees.containsKey(node);
+    }
+
+    @Override
+    public boolean hasNode(String node) {
+        return nodes.contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(String source, String target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<String> getPredsOf(String node) {
+        return getInEdgesOf(node).stream()
+                .map(ICFGEdge::getSource)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Set<String> getSuccsOf(String node) {
+        return getOutEdgesOf(node).stream()
+                .map(ICFGEdge::getTarget)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Set<String> getNodes() {
+        return nodes;
+    }
+}
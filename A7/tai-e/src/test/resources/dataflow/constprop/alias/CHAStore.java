@@ -0,0 +1,35 @@
+class CHAStore {
+
+    public static void main(String[] args) {
+        Holder h = new Holder();
+        Setter s = new A();
+        s.set(h);
+        int x = h.f;
+    }
+}
+
+interface Setter {
+    void set(Holder h);
+}
+
+class Holder {
+    int f;
+    int g;
+    static int s;
+}
+
+class A implements Setter {
+    public void set(Holder h) {
+        h.f = 1;
+    }
+}
+
+/**
+ * Reachable by CHA, but not by pointer analysis.
+ */
+class B implements Setter {
+    public void set(Holder h) {
+        h.g = 2;
+        Holder.s = 3;
+    }
+}
@@ -0,0 +1,21 @@
+class DeadCode {
+
+    static int branch(int x) {
+        if (x > 0) {
+            return x;
+        } else {
+            // dead as x is always 1
+            return unused();
+        }
+    }
+
+    // only called from dead code
+    static int unused() {
+        return 2;
+    }
+
+    public static void main(String[] args) {
+        int a = branch(1);
+        int b = branch(1);
+    }
+}
@@ -7,6 +7,20 @@ repositories {
     mavenCentral()
 }
 
+// macro benchmarks of the analyses on synthetic programs, run by task macroBenchmark
+val bench: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations["benchImplementation"].extendsFrom(configurations.implementation.get())
+
+// the tests also run the macro benchmarks
+sourceSets.test {
+    compileClasspath += bench.output
+    runtimeClasspath += bench.output
+}
+
 dependencies {
     implementation(files("lib/tai-e-assignment.jar"))
     implementation(files("../../lib/dependencies.jar"))
@@ -19,12 +33,26 @@ application {
 
 tasks.compileJava { options.encoding = "UTF-8" }
 tasks.compileTestJava { options.encoding = "UTF-8" }
+tasks.named<JavaCompile>("compileBenchJava") { options.encoding = "UTF-8" }
 
 tasks.test {
     useJUnit()
     maxHeapSize = "4G"
 }
 
+// usage: gradle macroBenchmark [-Pbench.args="--program classes=50 --analyses cha,cipta"]
+// the analyses run on the classes of A4-A8, which should be built beforehand,
+// and the results are appended to build/reports/macro-benchmark/results.csv
+tasks.register<JavaExec>("macroBenchmark") {
+    group = "verification"
+    description = "Runs the analyses on synthetic programs and records their costs."
+    mainClass.set("pascal.taie.bench.MacroBenchmark")
+    classpath = bench.runtimeClasspath
+    workingDir = projectDir
+    args(project.findProperty("bench.args")?.toString()?.split(" ")
+        ?.filter { it.isNotBlank() } ?: listOf<String>())
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
@@ -0,0 +1,160 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.language.classes.JMethod;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Entry of the JVMs launched by {@link MacroBenchmark}, each of which
+ * runs one analysis on one program.
+ * <p>
+ * Usage: {@code AnalysisRun <result-id> <arguments of Main>}.
+ * After the analysis finishes, it prints the measurements as a line
+ * started by {@link #PREFIX}, e.g.,
+ * {@code #bench wall_ms=1234;peak_heap_mb=567;reachable_methods=89}.
+ * <p>
+ * This class only relies on the APIs shared by all assignments, so that
+ * it can run on the classes of any of them. The results of pointer analysis,
+ * which are absent in A4, are only measured by {@link PointerAnalysisSizes},
+ * which is loaded only if {@code PointerAnalysisResult} is present.
+ */
+final class AnalysisRun {
+
+    static final String PREFIX = "#bench ";
+
+    /**
+     * Whether the classes of pointer analysis are present.
+     */
+    private static final boolean HAS_POINTER_ANALYSIS = hasClass(
+            "pascal.taie.analysis.pta.PointerAnalysisResult");
+
+    private AnalysisRun() {
+    }
+
+    public static void main(String[] args) {
+        String id = args[0];
+        long start = System.nanoTime();
+        Main.main(Arrays.copyOfRange(args, 1, args.length));
+        long wallTime = (System.nanoTime() - start) / 1_000_000;
+        Map<String, Long> measures = new LinkedHashMap<>();
+        measures.put("wall_ms", wallTime);
+        measures.put("peak_heap_mb", getPeakHeapUsage() >> 20);
+        collectResultSizes(World.get().getResult(id), measures);
+        StringJoiner joiner = new StringJoiner(";", PREFIX, "");
+        measures.forEach((k, v) -> joiner.add(k + "=" + v));
+        System.out.println(joiner);
+    }
+
+    /**
+     * @return sum of the peak usages (in bytes) of the heap memory pools.
+     */
+    private static long getPeakHeapUsage() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static boolean hasClass(String name) {
+        try {
+            Class.forName(name, false, AnalysisRun.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static void collectResultSizes(Object result, Map<String, Long> measures) {
+        CallGraph<?, JMethod> callGraph = HAS_POINTER_ANALYSIS
+                ? PointerAnalysisSizes.collect(result, measures) : null;
+        if (callGraph == null) {
+            if (result instanceof CallGraph<?, ?>) {
+                @SuppressWarnings("unchecked")
+                CallGraph<?, JMethod> cg = (CallGraph<?, JMethod>) result;
+                callGraph = cg;
+            } else {
+                // e.g., the results of inter-procedural data-flow analyses,
+                // whose sizes are measured by the call graphs they are based on
+                callGraph = World.get().getKeys().contains(CallGraphBuilder.ID)
+                        ? World.get().getResult(CallGraphBuilder.ID) : null;
+            }
+        }
+        if (callGraph != null) {
+            measures.put("reachable_methods", (long) callGraph.getNumberOfMethods());
+            measures.put("call_edges", (long) callGraph.getNumberOfEdges());
+            measures.put("stmts", callGraph.reachableMethods()
+                    .filter(m -> !m.isAbstract() && !m.isNative())
+                    .mapToLong(m -> m.getIR().getStmts().size())
+                    .sum());
+        }
+    }
+
+    /**
+     * Measures the results of pointer analysis. This class refers to
+     * {@code PointerAnalysisResult}, thus it must not be loaded
+     * on the classes of the assignments without pointer analysis.
+     */
+    private static final class PointerAnalysisSizes {
+
+        /**
+         * Key of the taint flows in {@code PointerAnalysisResult}.
+         */
+        private static final String TAINT_FLOWS =
+                "pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss";
+
+        /**
+         * @return the call graph of given result if it is
+         * a pointer analysis result, otherwise null.
+         */
+        private static CallGraph<?, JMethod> collect(
+                Object result, Map<String, Long> measures) {
+            if (result instanceof PointerAnalysisResult pta) {
+                measures.put("vars", (long) pta.getVars().size());
+                measures.put("objects", (long) pta.getObjects().size());
+                if (pta.getKeys().contains(TAINT_FLOWS)) {
+                    Collection<?> taintFlows = pta.getResult(TAINT_FLOWS);
+                    measures.put("taint_flows", (long) taintFlows.size());
+                }
+                return pta.getCallGraph();
+            }
+            return null;
+        }
+    }
+}
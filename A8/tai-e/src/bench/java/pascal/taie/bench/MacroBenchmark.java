@@ -0,0 +1,311 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.ConfigException;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the analyses on synthetic programs of different sizes
+ * (see {@link SyntheticProgram}), and appends the wall time, peak heap
+ * usage and result sizes of each run to a CSV file for trend tracking.
+ * <p>
+ * The analyses are implemented in different assignments, thus each of
+ * them is run in a separate JVM on the classes of the assignment that
+ * implements it, and these assignments should be built beforehand,
+ * e.g., by {@code gradle classes} in A4-A8. The runs do not need
+ * network access.
+ * <p>
+ * Usage (in the project directory):
+ * <pre>
+ * MacroBenchmark [--program classes=50,depth=4,...]... [--analyses cha,cipta,...]
+ *                [--root ../..] [--work build/macro-benchmark]
+ *                [--out build/reports/macro-benchmark/results.csv]
+ *                [--xmx 4g] [--timeout 1800]
+ * </pre>
+ */
+public final class MacroBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(MacroBenchmark.class);
+
+    /**
+     * Specification of an analysis run.
+     *
+     * @param name     name of the run, used in command line and CSV
+     * @param tree     the assignment that implements the analysis
+     * @param resultId ID of the analysis whose result is measured
+     * @param args     analysis arguments of {@code Main}, where
+     *                 {@link #TAINT_CONFIG} is replaced by the path
+     *                 of the taint configuration of the program
+     */
+    private record Analysis(String name, String tree,
+                            String resultId, List<String> args) {
+    }
+
+    private static final String TAINT_CONFIG = "${taint-config}";
+
+    private static final List<String> SELECTORS = List.of(
+            "ci", "1-call", "1-obj", "1-type", "2-call", "2-obj", "2-type");
+
+    private static final List<Analysis> ANALYSES = makeAnalyses();
+
+    private static List<Analysis> makeAnalyses() {
+        List<Analysis> analyses = new ArrayList<>();
+        analyses.add(new Analysis("cha", "A4", "cg",
+                List.of("-a", "cg=algorithm:cha")));
+        analyses.add(new Analysis("inter-constprop", "A4", "inter-constprop",
+                List.of("-a", "cg=algorithm:cha",
+                        "-a", "inter-constprop=edge-refine:false;alias-aware:false")));
+        analyses.add(new Analysis("cipta", "A5", "cipta",
+                List.of("-a", "cipta")));
+        SELECTORS.forEach(cs -> analyses.add(new Analysis("cspta-" + cs, "A6",
+                "cspta", List.of("-a", "cspta=cs:" + cs))));
+        analyses.add(new Analysis("inter-constprop-alias", "A7", "inter-constprop",
+                List.of("-a", "cspta=cs:2-obj",
+                        "-a", "cg=algorithm:cspta",
+                        "-a", "inter-constprop=edge-refine:false;alias-aware:true;pta:cspta")));
+        analyses.add(new Analysis("taint", "A8", "cspta",
+                List.of("-a", "cspta=cs:2-obj;taint-config:" + TAINT_CONFIG)));
+        return List.copyOf(analyses);
+    }
+
+    private static final List<String> DEFAULT_PROGRAMS = List.of(
+            "classes=10,depth=3,allocs=2,containers=1,taints=1",
+            "classes=50,depth=4,allocs=3,containers=2,taints=4",
+            "classes=200,depth=6,allocs=4,containers=4,taints=16");
+
+    /**
+     * Measurements reported by {@link AnalysisRun}, in the order of
+     * the columns of the CSV file.
+     */
+    private static final List<String> MEASURES = List.of(
+            "wall_ms", "peak_heap_mb", "reachable_methods", "call_edges",
+            "stmts", "vars", "objects", "taint_flows");
+
+    private static final String CSV_HEADER = String.join(",",
+            "date", "program", "classes", "depth", "allocs", "containers",
+            "taints", "analysis", "tree", "status", "process_ms")
+            + "," + String.join(",", MEASURES);
+
+    private Path root = Paths.get("../..");
+
+    private Path work = Paths.get("build/macro-benchmark");
+
+    private Path out = Paths.get("build/reports/macro-benchmark/results.csv");
+
+    private final List<SyntheticProgram> programs = new ArrayList<>();
+
+    private List<Analysis> analyses = ANALYSES;
+
+    private String xmx = "4g";
+
+    private long timeout = 1800;
+
+    private MacroBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        MacroBenchmark benchmark = new MacroBenchmark();
+        benchmark.parseArgs(args);
+        benchmark.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new ConfigException("Missing value of option: " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--root" -> root = Paths.get(value);
+                case "--work" -> work = Paths.get(value);
+                case "--out" -> out = Paths.get(value);
+                case "--program" -> programs.add(SyntheticProgram.parse(value));
+                case "--analyses" -> analyses = Arrays.stream(value.split(","))
+                        .map(String::trim)
+                        .map(MacroBenchmark::getAnalysis)
+                        .toList();
+                case "--xmx" -> xmx = value;
+                case "--timeout" -> timeout = Long.parseLong(value);
+                default -> throw new ConfigException("Invalid option: " + args[i]
+                        + ", expected one of --root/--work/--out/--program"
+                        + "/--analyses/--xmx/--timeout");
+            }
+        }
+        if (programs.isEmpty()) {
+            DEFAULT_PROGRAMS.forEach(p -> programs.add(SyntheticProgram.parse(p)));
+        }
+    }
+
+    private static Analysis getAnalysis(String name) {
+        return ANALYSES.stream()
+                .filter(a -> a.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new ConfigException("Invalid analysis: " + name
+                        + ", expected one of " + String.join("/",
+                        ANALYSES.stream().map(Analysis::name).toList())));
+    }
+
+    private void run() {
+        String date = LocalDateTime.now().withNano(0)
+                .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        try {
+            Files.createDirectories(out.toAbsolutePath().getParent());
+            boolean newFile = Files.notExists(out);
+            try (BufferedWriter writer = Files.newBufferedWriter(out,
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND)) {
+                if (newFile) {
+                    writer.write(CSV_HEADER);
+                    writer.newLine();
+                }
+                for (SyntheticProgram program : programs) {
+                    Path programDir = work.resolve(program.name()).toAbsolutePath();
+                    program.write(programDir);
+                    for (Analysis analysis : analyses) {
+                        logger.info("Running {} on {}", analysis.name(), program.name());
+                        Map<String, String> measures = new HashMap<>();
+                        long start = System.nanoTime();
+                        String status = runAnalysis(analysis, programDir, measures);
+                        long processTime = (System.nanoTime() - start) / 1_000_000;
+                        logger.info("{}: {}, {} ms", analysis.name(), status, processTime);
+                        List<String> row = new ArrayList<>(List.of(date,
+                                program.name(),
+                                Integer.toString(program.classes()),
+                                Integer.toString(program.depth()),
+                                Integer.toString(program.allocs()),
+                                Integer.toString(program.containers()),
+                                Integer.toString(program.taints()),
+                                analysis.name(), analysis.tree(), status,
+                                Long.toString(processTime)));
+                        MEASURES.forEach(m -> row.add(measures.getOrDefault(m, "")));
+                        writer.write(String.join(",", row));
+                        writer.newLine();
+                        // keep the finished rows if the benchmark is interrupted
+                        writer.flush();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to run macro benchmarks", e);
+        }
+    }
+
+    /**
+     * Runs an analysis on a program in a separate JVM, and collects
+     * the measurements reported by {@link AnalysisRun}.
+     *
+     * @return status of the run, i.e., one of ok/failed/timeout/missing.
+     */
+    private String runAnalysis(Analysis analysis, Path programDir,
+                               Map<String, String> measures) throws IOException {
+        Path treeDir = root.resolve(analysis.tree()).resolve("tai-e").toAbsolutePath();
+        Path classes = treeDir.resolve("build/classes/java/main");
+        if (Files.notExists(classes)) {
+            logger.warn("{} is absent, try to fix this by running 'gradle classes' in {}",
+                    classes, treeDir);
+            return "missing";
+        }
+        List<String> classPath = List.of(classes.toString(),
+                treeDir.resolve("lib/tai-e-assignment.jar").toString(),
+                root.resolve("lib/dependencies.jar").toAbsolutePath().toString(),
+                getBenchClassPath());
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + xmx);
+        Collections.addAll(command, "-cp", String.join(File.pathSeparator, classPath));
+        command.add(AnalysisRun.class.getName());
+        command.add(analysis.resultId());
+        command.add("-pp");
+        Collections.addAll(command, "-cp", programDir.toString());
+        Collections.addAll(command, "-m", SyntheticProgram.MAIN);
+        String taintConfig = programDir.resolve(SyntheticProgram.TAINT_CONFIG).toString();
+        analysis.args().forEach(arg -> command.add(arg.replace(TAINT_CONFIG, taintConfig)));
+
+        Path log = work.resolve("logs").resolve(programDir.getFileName())
+                .resolve(analysis.name() + ".log");
+        Files.createDirectories(log.toAbsolutePath().getParent());
+        Process process = new ProcessBuilder(command)
+                .directory(treeDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            if (!process.waitFor(timeout, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+                return "timeout";
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted when running " + analysis.name(), e);
+        }
+        if (process.exitValue() != 0) {
+            logger.warn("{} failed, see {} for details", analysis.name(), log);
+            return "failed";
+        }
+        try (var lines = Files.lines(log, StandardCharsets.UTF_8)) {
+            lines.filter(line -> line.startsWith(AnalysisRun.PREFIX))
+                    .reduce((first, second) -> second)
+                    .ifPresent(line -> {
+                        for (String kv : line.substring(AnalysisRun.PREFIX.length()).split(";")) {
+                            String[] splits = kv.split("=", 2);
+                            measures.put(splits[0], splits[1]);
+                        }
+                    });
+        }
+        return measures.isEmpty() ? "failed" : "ok";
+    }
+
+    /**
+     * @return where {@link AnalysisRun} is loaded from.
+     */
+    private static String getBenchClassPath() {
+        try {
+            return Paths.get(AnalysisRun.class.getProtectionDomain()
+                    .getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Failed to locate benchmark classes", e);
+        }
+    }
+}
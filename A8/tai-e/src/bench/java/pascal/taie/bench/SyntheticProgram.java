@@ -0,0 +1,270 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import pascal.taie.config.ConfigException;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generator of synthetic Java programs of parameterized size,
+ * which are used as inputs of macro benchmarks.
+ * <p>
+ * The generated program consists of:
+ * <ul>
+ *     <li>an abstract class {@code Base} and {@link #classes()} subclasses
+ *     {@code C0, C1, ...}, each of which has a chain of {@link #depth()}
+ *     virtual methods {@code m0 -> m1 -> ...}, and the receivers of
+ *     the calls are the objects allocated in the callers;</li>
+ *     <li>{@link #allocs()} allocation sites and the field stores/loads
+ *     on them in each method of the chains;</li>
+ *     <li>{@link #containers()} container usages in each {@code m0},
+ *     which alternate between a user-defined array-based container
+ *     and {@code java.util.ArrayList};</li>
+ *     <li>{@link #taints()} flows from the source to the sink of
+ *     {@code SourceSink} in the main method, which are described in
+ *     the generated {@link #TAINT_CONFIG}.</li>
+ * </ul>
+ * The source files do not use generics, lambdas, etc., so that they can
+ * be processed by the Java source front end of Tai-e.
+ *
+ * @param classes    number of subclasses of {@code Base}
+ * @param depth      length of the call chains
+ * @param allocs     number of allocation sites in each method of the chains
+ * @param containers number of container usages in each class
+ * @param taints     number of taint flows
+ */
+record SyntheticProgram(int classes, int depth, int allocs,
+                        int containers, int taints) {
+
+    /**
+     * Name of the main class of the generated programs.
+     */
+    static final String MAIN = "Program";
+
+    /**
+     * Name of the generated taint configuration file.
+     */
+    static final String TAINT_CONFIG = "taint-config.yml";
+
+    SyntheticProgram {
+        if (classes < 1 || depth < 1 || allocs < 1
+                || containers < 0 || taints < 0) {
+            throw new ConfigException("Invalid synthetic program: " +
+                    "classes, depth and allocs should be positive, " +
+                    "containers and taints should be non-negative");
+        }
+    }
+
+    /**
+     * Parses a program specification like
+     * {@code classes=50,depth=4,allocs=2,containers=1,taints=2}.
+     * The unspecified parameters take the default values of
+     * {@code classes=10,depth=3,allocs=2,containers=1,taints=1}.
+     */
+    static SyntheticProgram parse(String spec) {
+        int classes = 10, depth = 3, allocs = 2, containers = 1, taints = 1;
+        for (String kv : spec.split(",")) {
+            String[] splits = kv.split("=", 2);
+            if (splits.length != 2) {
+                throw new ConfigException("Invalid program parameter: " + kv);
+            }
+            int value;
+            try {
+                value = Integer.parseInt(splits[1].trim());
+            } catch (NumberFormatException e) {
+                throw new ConfigException("Invalid program parameter: " + kv, e);
+            }
+            switch (splits[0].trim()) {
+                case "classes" -> classes = value;
+                case "depth" -> depth = value;
+                case "allocs" -> allocs = value;
+                case "containers" -> containers = value;
+                case "taints" -> taints = value;
+                default -> throw new ConfigException("Invalid program parameter: "
+                        + splits[0] + ", expected one of " +
+                        "classes/depth/allocs/containers/taints");
+            }
+        }
+        return new SyntheticProgram(classes, depth, allocs, containers, taints);
+    }
+
+    /**
+     * @return the name of this program, which is unique for each
+     * combination of the parameters.
+     */
+    String name() {
+        return String.format("c%d-d%d-a%d-k%d-t%d",
+                classes, depth, allocs, containers, taints);
+    }
+
+    /**
+     * Writes the source files and the taint configuration of this program
+     * to the given directory.
+     */
+    void write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        try (PrintWriter out = open(dir, "Base")) {
+            writeBase(out);
+        }
+        for (int i = 0; i < classes; ++i) {
+            try (PrintWriter out = open(dir, "C" + i)) {
+                writeClass(out, i);
+            }
+        }
+        try (PrintWriter out = open(dir, "Container")) {
+            writeContainer(out);
+        }
+        try (PrintWriter out = open(dir, "SourceSink")) {
+            writeSourceSink(out);
+        }
+        try (PrintWriter out = open(dir, MAIN)) {
+            writeMain(out);
+        }
+        Files.writeString(dir.resolve(TAINT_CONFIG), """
+                sources:
+                  - { method: "<SourceSink: java.lang.String source()>", type: "java.lang.String" }
+
+                sinks:
+                  - { method: "<SourceSink: void sink(java.lang.String)>", index: 0 }
+
+                transfers:
+                  - { method: "<java.lang.String: java.lang.String concat(java.lang.String)>", from: base, to: result, type: "java.lang.String" }
+                """, StandardCharsets.UTF_8);
+    }
+
+    private static PrintWriter open(Path dir, String className) throws IOException {
+        return new PrintWriter(Files.newBufferedWriter(
+                dir.resolve(className + ".java"), StandardCharsets.UTF_8));
+    }
+
+    private void writeBase(PrintWriter out) {
+        out.println("abstract class Base {");
+        out.println();
+        out.println("    Base f;");
+        out.println();
+        for (int j = 0; j < depth; ++j) {
+            out.printf("    abstract Base m%d(Base p, int k);%n", j);
+            out.println();
+        }
+        out.println("    static Object relay(Object o) {");
+        out.println("        return o;");
+        out.println("    }");
+        out.println("}");
+    }
+
+    private void writeClass(PrintWriter out, int i) {
+        out.printf("class C%d extends Base {%n", i);
+        for (int j = 0; j < depth; ++j) {
+            out.println();
+            out.printf("    Base m%d(Base p, int k) {%n", j);
+            for (int a = 0; a < allocs; ++a) {
+                out.printf("        Base o%d = new C%d();%n", a, (i + j + a) % classes);
+                out.printf("        o%d.f = %s;%n", a, a == 0 ? "p" : "o" + (a - 1));
+            }
+            if (j == 0) {
+                for (int c = 0; c < containers; ++c) {
+                    if (c % 2 == 0) {
+                        out.printf("        Container l%d = new Container();%n", c);
+                    } else {
+                        out.printf("        java.util.List l%d = new java.util.ArrayList();%n", c);
+                    }
+                    out.printf("        l%d.add(o0);%n", c);
+                    out.printf("        o0 = (Base) l%d.get(0);%n", c);
+                }
+            }
+            out.printf("        int x = k + %d;%n", j + 1);
+            out.printf("        Base r = o%d.f;%n", allocs - 1);
+            if (j + 1 < depth) {
+                out.printf("        return r.m%d(o0, x * 2);%n", j + 1);
+            } else {
+                out.println("        this.f = r;");
+                out.println("        return this.f;");
+            }
+            out.println("    }");
+        }
+        out.println("}");
+    }
+
+    private static void writeContainer(PrintWriter out) {
+        out.println("""
+                class Container {
+
+                    private Object[] elements = new Object[10];
+
+                    private int size = 0;
+
+                    void add(Object o) {
+                        if (size == elements.length) {
+                            Object[] tmp = new Object[size * 2];
+                            for (int i = 0; i < size; i++) {
+                                tmp[i] = elements[i];
+                            }
+                            elements = tmp;
+                        }
+                        elements[size++] = o;
+                    }
+
+                    Object get(int i) {
+                        return elements[i];
+                    }
+                }""");
+    }
+
+    private static void writeSourceSink(PrintWriter out) {
+        out.println("""
+                class SourceSink {
+
+                    static String source() {
+                        return new String();
+                    }
+
+                    static void sink(String s) {
+                    }
+                }""");
+    }
+
+    private void writeMain(PrintWriter out) {
+        out.printf("public class %s {%n", MAIN);
+        out.println();
+        out.println("    public static void main(String[] args) {");
+        out.println("        Base prev = new C0();");
+        for (int i = 0; i < classes; ++i) {
+            out.printf("        Base b%d = new C%d();%n", i, i);
+            out.printf("        prev = b%d.m0(prev, %d);%n", i, i);
+        }
+        for (int t = 0; t < taints; ++t) {
+            out.printf("        String s%d = SourceSink.source().concat(\"%d\");%n", t, t);
+            out.printf("        Container t%d = new Container();%n", t);
+            out.printf("        t%d.add(s%d);%n", t, t);
+            out.printf("        Object r%d = Base.relay(t%d.get(0));%n", t, t);
+            out.printf("        SourceSink.sink((String) r%d);%n", t);
+        }
+        out.println("    }");
+        out.println("}");
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MacroBenchmarkTest {
+
+    private static final Path ROOT = Paths.get("../..");
+
+    /**
+     * Runs cha on the classes of A4, which have no pointer analysis,
+     * and checks that the run reports its measurements.
+     */
+    @Test
+    public void testCHA() throws IOException {
+        Assume.assumeTrue("A4 should be built by 'gradle classes'",
+                Files.exists(ROOT.resolve("A4/tai-e/build/classes/java/main")));
+        Path work = Files.createTempDirectory("macro-benchmark");
+        Path out = work.resolve("results.csv");
+        MacroBenchmark.main(new String[]{
+                "--root", ROOT.toString(),
+                "--work", work.toString(),
+                "--out", out.toString(),
+                "--program", "classes=2,depth=1,allocs=1,containers=1,taints=1",
+                "--analyses", "cha",
+        });
+        List<String> lines = Files.readAllLines(out, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        List<String> header = List.of(lines.get(0).split(",", -1));
+        String[] row = lines.get(1).split(",", -1);
+        assertEquals("ok", row[header.indexOf("status")]);
+        assertFalse(row[header.indexOf("reachable_methods")].isEmpty());
+        assertFalse(row[header.indexOf("call_edges")].isEmpty());
+        // measured only for the results of pointer analysis
+        assertTrue(row[header.indexOf("vars")].isEmpty());
+    }
+}